@@ -0,0 +1,189 @@
+import java.util.function.Supplier;
+
+/**
+ * Casos medidos por los benchmarks de JMH (paquete rendimiento).
+ * JMH no admite benchmarks en el paquete por defecto y desde un paquete con nombre no se
+ * pueden usar las clases del juego, así que cada benchmark pide aquí su caso ya preparado
+ * y solo mide la llamada a {@link Supplier#get()}. Todo lo aleatorio parte de semillas
+ * fijas para que dos ejecuciones midan exactamente el mismo trabajo.
+ */
+public final class CasosRendimiento {
+    /** Puzzle fácil clásico: se resuelve solo con singles */
+    public static final String FACIL =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    /** Puzzle muy difícil (Arto Inkala, 2012) */
+    public static final String DIFICIL =
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+    /** Puzzle mínimo con 17 pistas */
+    public static final String MINIMO =
+            "000000010400000000020000000000050407008000300001090000300400200050100000000806000";
+
+    private CasosRendimiento() {
+    }
+
+    /**
+     * Prepara un caso de benchmark
+     * @param caso Nombre del caso
+     * @param parametro Dificultad ("facil", "medio", "dificil") o puzzle del corpus ("facil", "dificil", "minimo")
+     * @param semilla Semilla fija de la parte aleatoria
+     * @return Operación a medir; cada llamada hace una operación completa
+     */
+    public static Supplier<Object> preparar(String caso, String parametro, long semilla) {
+        switch (caso) {
+            case "generarTableroCompleto":
+                return generarTableroCompleto(semilla);
+            case "vaciarCeldas":
+                return vaciarCeldas(parametro, semilla);
+            case "esMovimientoValido":
+                return esMovimientoValido(parametro, semilla, false);
+            case "validarMovimiento":
+                return esMovimientoValido(parametro, semilla, true);
+            case "estaResuelto":
+                return estaResuelto(semilla);
+            case "resolverBitmask":
+                return resolverBitmask(puzzle(parametro));
+            case "resolverDLX":
+                return resolverDLX(puzzle(parametro));
+            case "calificar":
+                return calificar(puzzle(parametro));
+            default:
+                throw new IllegalArgumentException("Caso de benchmark desconocido: " + caso);
+        }
+    }
+
+    /**
+     * Generación de soluciones completas con un generador de semilla fija
+     * @param semilla Semilla del generador
+     * @return Operación a medir
+     */
+    private static Supplier<Object> generarTableroCompleto(long semilla) {
+        GeneradorSudoku generador = new GeneradorSudoku(semilla);
+        return generador::generarTableroCompleto;
+    }
+
+    /**
+     * Vaciado de celdas (con comprobación de unicidad) sobre copias de una misma solución
+     * @param dificultad Nivel de dificultad
+     * @param semilla Semilla del generador
+     * @return Operación a medir
+     */
+    private static Supplier<Object> vaciarCeldas(String dificultad, long semilla) {
+        GeneradorSudoku generador = new GeneradorSudoku(semilla);
+        Tablero solucion = generador.generarSolucion();
+        Tablero puzzle = new Tablero();
+        int celdasVacias = GeneradorSudoku.celdasVaciasPara(dificultad);
+        return () -> {
+            puzzle.copiarDe(solucion);
+            generador.vaciarCeldas(puzzle, celdasVacias);
+            return puzzle;
+        };
+    }
+
+    /**
+     * Validación de movimientos recorriendo todas las celdas y valores de un puzzle
+     * @param dificultad Nivel de dificultad del puzzle
+     * @param semilla Semilla del puzzle
+     * @param soloCodigo true para pedir solo el código de error, sin construir el mensaje
+     * @return Operación a medir
+     */
+    private static Supplier<Object> esMovimientoValido(String dificultad, long semilla, boolean soloCodigo) {
+        Sudoku sudoku = new Sudoku();
+        sudoku.generarTablero(dificultad, semilla);
+        int tamanio = sudoku.getTamanio();
+        int[] siguiente = {0};
+        return () -> {
+            int movimiento = siguiente[0];
+            siguiente[0] = movimiento + 1 == tamanio * tamanio * tamanio ? 0 : movimiento + 1;
+            int celda = movimiento / tamanio;
+            int fila = celda / tamanio;
+            int columna = celda % tamanio;
+            int valor = movimiento % tamanio + 1;
+            return soloCodigo ? sudoku.validarMovimiento(fila, columna, valor)
+                    : sudoku.esMovimientoValido(fila, columna, valor);
+        };
+    }
+
+    /**
+     * Comprobación de un tablero completo (el peor caso: hay que recorrerlo entero)
+     * @param semilla Semilla de la solución
+     * @return Operación a medir
+     */
+    private static Supplier<Object> estaResuelto(long semilla) {
+        Tablero solucion = new GeneradorSudoku(semilla).generarSolucion();
+        Sudoku sudoku = new Sudoku();
+        for (int f = 0; f < sudoku.getTamanio(); f++) {
+            for (int c = 0; c < sudoku.getTamanio(); c++) {
+                sudoku.setValor(f, c, solucion.get(f, c));
+            }
+        }
+        return sudoku::estaResuelto;
+    }
+
+    /**
+     * Resolución con el resolutor de máscaras de bits
+     * @param puzzle Puzzle del corpus
+     * @return Operación a medir
+     */
+    private static Supplier<Object> resolverBitmask(Tablero puzzle) {
+        ResolutorBitmask resolutor = new ResolutorBitmask();
+        Tablero resultado = new Tablero();
+        return () -> {
+            if (resolutor.cargar(puzzle) && resolutor.resolver()) {
+                resolutor.copiarEn(resultado);
+            }
+            return resultado;
+        };
+    }
+
+    /**
+     * Resolución con Dancing Links
+     * @param puzzle Puzzle del corpus
+     * @return Operación a medir
+     */
+    private static Supplier<Object> resolverDLX(Tablero puzzle) {
+        ResolutorDLX resolutor = new ResolutorDLX();
+        int[][] trabajo = new int[Sudoku.TAMANIO][Sudoku.TAMANIO];
+        return () -> {
+            puzzle.copiarEn(trabajo);
+            resolutor.resolver(trabajo);
+            return trabajo;
+        };
+    }
+
+    /**
+     * Calificación por técnicas humanas
+     * @param puzzle Puzzle del corpus
+     * @return Operación a medir
+     */
+    private static Supplier<Object> calificar(Tablero puzzle) {
+        CalificadorSudoku calificador = new CalificadorSudoku();
+        return () -> calificador.calificar(puzzle);
+    }
+
+    /**
+     * Convierte el nombre de un puzzle del corpus en tablero
+     * @param nombre "facil", "dificil" o "minimo"
+     * @return Puzzle del corpus
+     */
+    private static Tablero puzzle(String nombre) {
+        String texto;
+        switch (nombre) {
+            case "facil":
+                texto = FACIL;
+                break;
+            case "dificil":
+                texto = DIFICIL;
+                break;
+            case "minimo":
+                texto = MINIMO;
+                break;
+            default:
+                throw new IllegalArgumentException("Puzzle desconocido: " + nombre);
+        }
+        Tablero tablero = new Tablero();
+        for (int celda = 0; celda < texto.length(); celda++) {
+            tablero.set(celda, texto.charAt(celda) - '0');
+        }
+        return tablero;
+    }
+}
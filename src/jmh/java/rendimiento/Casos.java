@@ -0,0 +1,34 @@
+package rendimiento;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.Supplier;
+
+/**
+ * Acceso a los casos de CasosRendimiento, que está en el paquete por defecto como el resto
+ * del juego. La búsqueda por reflexión se hace una vez en el @Setup; lo medido es una
+ * llamada normal a la interfaz, que el JIT puede inlinear igual que una llamada directa.
+ */
+final class Casos {
+    private Casos() {
+    }
+
+    /**
+     * Prepara un caso de benchmark
+     * @param caso Nombre del caso
+     * @param parametro Dificultad o puzzle del corpus
+     * @param semilla Semilla fija de la parte aleatoria
+     * @return Operación a medir
+     */
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> preparar(String caso, String parametro, long semilla) {
+        try {
+            return (Supplier<Object>) Class.forName("CasosRendimiento")
+                    .getMethod("preparar", String.class, String.class, long.class)
+                    .invoke(null, caso, parametro, semilla);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("No se pudo preparar el caso " + caso, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se encuentra CasosRendimiento", e);
+        }
+    }
+}
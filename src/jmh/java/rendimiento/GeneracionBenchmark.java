@@ -0,0 +1,66 @@
+package rendimiento;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Generación de tableros: solución completa y vaciado de celdas por dificultad (RNF-01)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GeneracionBenchmark {
+
+    @State(Scope.Thread)
+    public static class EstadoSolucion {
+        @Param("20240601")
+        long semilla;
+
+        Supplier<Object> operacion;
+
+        @Setup
+        public void preparar() {
+            operacion = Casos.preparar("generarTableroCompleto", null, semilla);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EstadoVaciado {
+        @Param({"facil", "medio", "dificil"})
+        String dificultad;
+
+        @Param("20240601")
+        long semilla;
+
+        Supplier<Object> operacion;
+
+        @Setup
+        public void preparar() {
+            operacion = Casos.preparar("vaciarCeldas", dificultad, semilla);
+        }
+    }
+
+    @Benchmark
+    public Object generarTableroCompleto(EstadoSolucion estado) {
+        return estado.operacion.get();
+    }
+
+    @Benchmark
+    public Object vaciarCeldas(EstadoVaciado estado) {
+        return estado.operacion.get();
+    }
+}
@@ -0,0 +1,56 @@
+package rendimiento;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Resolutores y calificador sobre el corpus de puzzles fácil, difícil y mínimo
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ResolucionBenchmark {
+    @Param({"facil", "dificil", "minimo"})
+    String puzzle;
+
+    Supplier<Object> bitmask;
+    Supplier<Object> dlx;
+    Supplier<Object> calificador;
+
+    @Setup
+    public void preparar() {
+        bitmask = Casos.preparar("resolverBitmask", puzzle, 0);
+        dlx = Casos.preparar("resolverDLX", puzzle, 0);
+        calificador = Casos.preparar("calificar", puzzle, 0);
+    }
+
+    @Benchmark
+    public Object resolverBitmask() {
+        return bitmask.get();
+    }
+
+    @Benchmark
+    public Object resolverDLX() {
+        return dlx.get();
+    }
+
+    @Benchmark
+    public Object calificar() {
+        return calificador.get();
+    }
+}
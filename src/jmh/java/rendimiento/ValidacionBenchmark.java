@@ -0,0 +1,73 @@
+package rendimiento;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Validación de movimientos y comprobación de tablero resuelto
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ValidacionBenchmark {
+
+    @State(Scope.Thread)
+    public static class EstadoMovimiento {
+        @Param({"facil", "dificil"})
+        String dificultad;
+
+        @Param("20240601")
+        long semilla;
+
+        Supplier<Object> mensaje;
+        Supplier<Object> codigo;
+
+        @Setup
+        public void preparar() {
+            mensaje = Casos.preparar("esMovimientoValido", dificultad, semilla);
+            codigo = Casos.preparar("validarMovimiento", dificultad, semilla);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EstadoResuelto {
+        @Param("20240601")
+        long semilla;
+
+        Supplier<Object> operacion;
+
+        @Setup
+        public void preparar() {
+            operacion = Casos.preparar("estaResuelto", null, semilla);
+        }
+    }
+
+    @Benchmark
+    public Object esMovimientoValido(EstadoMovimiento estado) {
+        return estado.mensaje.get();
+    }
+
+    @Benchmark
+    public Object validarMovimiento(EstadoMovimiento estado) {
+        return estado.codigo.get();
+    }
+
+    @Benchmark
+    public Object estaResuelto(EstadoResuelto estado) {
+        return estado.operacion.get();
+    }
+}
@@ -0,0 +1,336 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Banco de puzzles 9x9 en un archivo binario proyectado en memoria.
+ *
+ * Formato: una cabecera de 64 bytes (firma, versión, capacidad por dificultad y número
+ * de puzzles de cada dificultad) seguida de una región de registros de tamaño fijo por
+ * dificultad. Cada registro guarda el puzzle y su solución con 4 bits por celda y la
+ * puntuación del {@link CalificadorSudoku}. Como la dificultad decide la región y los
+ * registros miden lo mismo, la posición de cualquier puzzle se calcula directamente:
+ * obtener uno al azar es O(1) y no hay que leer ni deserializar el resto del archivo.
+ * No hay más caché que la del sistema operativo, así que un banco recién abierto
+ * empieza a servir puzzles sin cargar nada.
+ *
+ * Las lecturas se pueden hacer desde varios hilos; las escrituras se sincronizan.
+ */
+public class BancoSudoku {
+    public static final String[] DIFICULTADES = {"facil", "medio", "dificil"};
+
+    private static final int FIRMA = 0x53444b42; // "SDKB"
+    private static final int VERSION = 1;
+    private static final int CABECERA = 64;
+    private static final int CELDAS = 81;
+    // Bytes de un tablero empaquetado (4 bits por celda)
+    private static final int BYTES_TABLERO = (CELDAS + 1) / 2;
+    // Puzzle, solución, puntuación (short) y relleno hasta un múltiplo de 8
+    private static final int REGISTRO = 88;
+    private static final int POSICION_PUNTUACION = 2 * BYTES_TABLERO;
+
+    // Posiciones de los campos de la cabecera
+    private static final int POSICION_VERSION = 4;
+    private static final int POSICION_CAPACIDAD = 8;
+    private static final int POSICION_CANTIDADES = 12;
+
+    private final MappedByteBuffer datos;
+    private final boolean soloLectura;
+    private final int capacidad;
+    // Calificador usado al agregar puzzles (solo se usa dentro de bloques sincronizados)
+    private final CalificadorSudoku calificador = new CalificadorSudoku();
+    private final ResolutorBitmask resolutor = new ResolutorBitmask();
+
+    /**
+     * Constructor privado: usar {@link #crear(Path, int)} o {@link #abrir(Path, boolean)}
+     * @param datos Archivo proyectado en memoria
+     * @param soloLectura Indica si el banco se abrió solo para lectura
+     */
+    private BancoSudoku(MappedByteBuffer datos, boolean soloLectura) {
+        this.datos = datos;
+        this.soloLectura = soloLectura;
+        datos.order(ByteOrder.LITTLE_ENDIAN);
+        if (datos.capacity() < CABECERA || datos.getInt(0) != FIRMA || datos.getInt(POSICION_VERSION) != VERSION) {
+            throw new IllegalArgumentException("El archivo no es un banco de puzzles válido");
+        }
+        this.capacidad = datos.getInt(POSICION_CAPACIDAD);
+        // Un archivo truncado o con cantidades imposibles fallaría más tarde, al leer un registro
+        if (capacidad < 1 || datos.capacity() < CABECERA + (long) DIFICULTADES.length * capacidad * REGISTRO) {
+            throw new IllegalArgumentException("El banco de puzzles está truncado o dañado");
+        }
+        for (int i = 0; i < DIFICULTADES.length; i++) {
+            int cantidad = datos.getInt(POSICION_CANTIDADES + 4 * i);
+            if (cantidad < 0 || cantidad > capacidad) {
+                throw new IllegalArgumentException("El banco de puzzles está truncado o dañado");
+            }
+        }
+    }
+
+    /**
+     * Crea un banco vacío, reservando de antemano el espacio de todas las regiones
+     * @param archivo Archivo del banco (se sobrescribe si existe)
+     * @param capacidad Número máximo de puzzles por dificultad
+     * @return Banco abierto para lectura y escritura
+     * @throws IOException Si no se puede crear el archivo
+     */
+    public static BancoSudoku crear(Path archivo, int capacidad) throws IOException {
+        long tamanio = CABECERA + (long) DIFICULTADES.length * capacidad * REGISTRO;
+        if (capacidad < 1 || tamanio > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacidad de banco no válida: " + capacidad);
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanio);
+            datos.order(ByteOrder.LITTLE_ENDIAN);
+            datos.putInt(0, FIRMA);
+            datos.putInt(POSICION_VERSION, VERSION);
+            datos.putInt(POSICION_CAPACIDAD, capacidad);
+            return new BancoSudoku(datos, false);
+        }
+    }
+
+    /**
+     * Abre un banco existente
+     * @param archivo Archivo del banco
+     * @param soloLectura true para abrirlo solo para lectura
+     * @return Banco abierto
+     * @throws IOException Si no se puede abrir el archivo
+     */
+    public static BancoSudoku abrir(Path archivo, boolean soloLectura) throws IOException {
+        try (FileChannel canal = soloLectura
+                ? FileChannel.open(archivo, StandardOpenOption.READ)
+                : FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer datos = canal.map(soloLectura ? FileChannel.MapMode.READ_ONLY
+                    : FileChannel.MapMode.READ_WRITE, 0, canal.size());
+            return new BancoSudoku(datos, soloLectura);
+        }
+    }
+
+    /**
+     * Devuelve el número máximo de puzzles por dificultad
+     * @return Capacidad de cada región
+     */
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * Devuelve cuántos puzzles hay de una dificultad
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @return Número de puzzles guardados
+     */
+    public int cantidad(String dificultad) {
+        return datos.getInt(POSICION_CANTIDADES + 4 * indiceDificultad(dificultad));
+    }
+
+    /**
+     * Agrega un puzzle en la región de su dificultad real: lo resuelve una vez y lo califica
+     * partiendo de esa solución
+     * @param puzzle Puzzle 9x9 con solución
+     * @return Dificultad con la que se guardó, o null si su región está llena
+     */
+    public synchronized String agregar(Tablero puzzle) {
+        if (puzzle.getGeometria() != GeometriaSudoku.de(Sudoku.SUBCUADRICULA)) {
+            throw new IllegalArgumentException("El banco solo guarda puzzles 9x9");
+        }
+        if (!resolutor.cargar(puzzle) || !resolutor.resolver()) {
+            throw new IllegalArgumentException("El puzzle no tiene solución");
+        }
+        Tablero solucion = new Tablero();
+        resolutor.copiarEn(solucion);
+        return agregar(puzzle, solucion);
+    }
+
+    /**
+     * Agrega un puzzle del que ya se conoce la solución en la región de su dificultad real.
+     * La solución se usa al calificarlo, así que el puzzle no se vuelve a resolver
+     * @param puzzle Puzzle 9x9
+     * @param solucion Solución completa del puzzle, que respeta todas sus pistas
+     * @return Dificultad con la que se guardó, o null si su región está llena
+     */
+    public synchronized String agregar(Tablero puzzle, Tablero solucion) {
+        if (soloLectura) {
+            throw new IllegalStateException("El banco está abierto solo para lectura");
+        }
+        // Los registros guardan 81 celdas de 4 bits: solo caben tableros 9x9
+        GeometriaSudoku geometria = GeometriaSudoku.de(Sudoku.SUBCUADRICULA);
+        if (puzzle.getGeometria() != geometria || solucion.getGeometria() != geometria) {
+            throw new IllegalArgumentException("El banco solo guarda puzzles 9x9");
+        }
+        if (!solucion.estaResuelto()) {
+            throw new IllegalArgumentException("La solución no es un tablero completo y válido");
+        }
+        for (int celda = 0; celda < CELDAS; celda++) {
+            if (puzzle.get(celda) != 0 && puzzle.get(celda) != solucion.get(celda)) {
+                throw new IllegalArgumentException("La solución no respeta las pistas del puzzle");
+            }
+        }
+        CalificacionSudoku calificacion = calificador.calificar(puzzle, solucion);
+        if (!calificacion.isResuelto()) {
+            throw new IllegalArgumentException("El puzzle no tiene solución");
+        }
+        int indice = indiceDificultad(calificacion.getDificultad());
+        int posicionCantidad = POSICION_CANTIDADES + 4 * indice;
+        int cantidad = datos.getInt(posicionCantidad);
+        if (cantidad == capacidad) {
+            return null;
+        }
+
+        int registro = posicion(indice, cantidad);
+        empaquetar(puzzle, registro);
+        empaquetar(solucion, registro + BYTES_TABLERO);
+        datos.putShort(registro + POSICION_PUNTUACION,
+                (short) Math.min(calificacion.getPuntuacion(), Short.MAX_VALUE));
+        // La cantidad se actualiza después del registro: un corte a medias no deja registros a medio escribir
+        datos.putInt(posicionCantidad, cantidad + 1);
+        return DIFICULTADES[indice];
+    }
+
+    /**
+     * Genera puzzles 9x9 en paralelo y los agrega al banco según su dificultad real
+     * @param cantidad Número de puzzles a generar
+     * @param dificultad Nivel de dificultad pedido al generador
+     * @return Número de puzzles agregados (los que caen en una región llena se descartan)
+     */
+    public int agregarGenerados(int cantidad, String dificultad) {
+        // El generador ya conoce la solución de cada puzzle: no hace falta resolverlos otra vez
+        List<Tablero[]> pares = GeneradorSudoku.generarLoteConSoluciones(cantidad, dificultad);
+        int agregados = 0;
+        for (Tablero[] par : pares) {
+            if (agregar(par[0], par[1]) != null) {
+                agregados++;
+            }
+        }
+        return agregados;
+    }
+
+    /**
+     * Lee un puzzle del banco
+     * @param dificultad Nivel de dificultad
+     * @param indice Posición del puzzle dentro de su dificultad
+     * @return Puzzle (0 en las celdas vacías)
+     */
+    public Tablero puzzle(String dificultad, int indice) {
+        return desempaquetar(registro(dificultad, indice));
+    }
+
+    /**
+     * Lee la solución de un puzzle del banco
+     * @param dificultad Nivel de dificultad
+     * @param indice Posición del puzzle dentro de su dificultad
+     * @return Solución del puzzle
+     */
+    public Tablero solucion(String dificultad, int indice) {
+        return desempaquetar(registro(dificultad, indice) + BYTES_TABLERO);
+    }
+
+    /**
+     * Lee la puntuación de dificultad de un puzzle del banco
+     * @param dificultad Nivel de dificultad
+     * @param indice Posición del puzzle dentro de su dificultad
+     * @return Puntuación del calificador
+     */
+    public int puntuacion(String dificultad, int indice) {
+        return datos.getShort(registro(dificultad, indice) + POSICION_PUNTUACION);
+    }
+
+    /**
+     * Elige al azar la posición de un puzzle de una dificultad
+     * @param dificultad Nivel de dificultad
+     * @return Posición del puzzle, o -1 si no hay ninguno de esa dificultad
+     */
+    public int indiceAleatorio(String dificultad) {
+        int cantidad = cantidad(dificultad);
+        return cantidad == 0 ? -1 : ThreadLocalRandom.current().nextInt(cantidad);
+    }
+
+    /**
+     * Obtiene un puzzle al azar de una dificultad
+     * @param dificultad Nivel de dificultad
+     * @return Puzzle, o null si no hay ninguno de esa dificultad
+     */
+    public Tablero puzzleAleatorio(String dificultad) {
+        int indice = indiceAleatorio(dificultad);
+        return indice < 0 ? null : puzzle(dificultad, indice);
+    }
+
+    /**
+     * Vuelca al disco los cambios pendientes
+     */
+    public void guardar() {
+        if (!soloLectura) {
+            datos.force();
+        }
+    }
+
+    /**
+     * Calcula la posición de un registro comprobando que exista
+     * @param dificultad Nivel de dificultad
+     * @param indice Posición del puzzle dentro de su dificultad
+     * @return Posición del registro en el archivo
+     */
+    private int registro(String dificultad, int indice) {
+        if (indice < 0 || indice >= cantidad(dificultad)) {
+            throw new IndexOutOfBoundsException("No hay puzzle " + indice + " de dificultad " + dificultad);
+        }
+        return posicion(indiceDificultad(dificultad), indice);
+    }
+
+    /**
+     * Calcula la posición de un registro
+     * @param region Índice de la dificultad
+     * @param indice Posición del puzzle dentro de su región
+     * @return Posición del registro en el archivo
+     */
+    private int posicion(int region, int indice) {
+        return CABECERA + (region * capacidad + indice) * REGISTRO;
+    }
+
+    /**
+     * Escribe un tablero con 4 bits por celda (celda par en los 4 bits bajos)
+     * @param tablero Tablero a escribir
+     * @param posicion Posición en el archivo
+     */
+    private void empaquetar(Tablero tablero, int posicion) {
+        for (int celda = 0; celda < CELDAS; celda += 2) {
+            int alta = celda + 1 < CELDAS ? tablero.get(celda + 1) : 0;
+            datos.put(posicion + celda / 2, (byte) (tablero.get(celda) | alta << 4));
+        }
+    }
+
+    /**
+     * Lee un tablero escrito con {@link #empaquetar(Tablero, int)}
+     * @param posicion Posición en el archivo
+     * @return Tablero leído
+     */
+    private Tablero desempaquetar(int posicion) {
+        Tablero tablero = new Tablero();
+        for (int celda = 0; celda < CELDAS; celda += 2) {
+            int par = datos.get(posicion + celda / 2);
+            tablero.set(celda, par & 0xF);
+            if (celda + 1 < CELDAS) {
+                tablero.set(celda + 1, (par >>> 4) & 0xF);
+            }
+        }
+        return tablero;
+    }
+
+    /**
+     * Convierte el nombre de una dificultad en su índice
+     * @param dificultad Nivel de dificultad
+     * @return Índice de la dificultad
+     */
+    private static int indiceDificultad(String dificultad) {
+        for (int i = 0; i < DIFICULTADES.length; i++) {
+            if (DIFICULTADES[i].equalsIgnoreCase(dificultad)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Dificultad desconocida: " + dificultad);
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Resultado de calificar un puzzle: la técnica más difícil necesaria, la puntuación
+ * acumulada y cuántas veces se aplicó cada técnica.
+ */
+public final class CalificacionSudoku {
+    private final boolean resuelto;
+    private final TecnicaSudoku tecnicaMaxima;
+    private final int puntuacion;
+    private final int[] usos;
+
+    /**
+     * Constructor que guarda el resultado de una calificación
+     * @param resuelto Indica si el puzzle tiene solución
+     * @param tecnicaMaxima Técnica más difícil aplicada (null si no hizo falta ninguna)
+     * @param puntuacion Suma de los pesos de todas las técnicas aplicadas
+     * @param usos Veces que se aplicó cada técnica, indexado por ordinal
+     */
+    CalificacionSudoku(boolean resuelto, TecnicaSudoku tecnicaMaxima, int puntuacion, int[] usos) {
+        this.resuelto = resuelto;
+        this.tecnicaMaxima = tecnicaMaxima;
+        this.puntuacion = puntuacion;
+        this.usos = usos;
+    }
+
+    /**
+     * Indica si el puzzle tiene solución
+     * @return true si se pudo resolver
+     */
+    public boolean isResuelto() {
+        return resuelto;
+    }
+
+    /**
+     * Devuelve la técnica más difícil que hizo falta
+     * @return Técnica más difícil, o null si el puzzle ya estaba completo
+     */
+    public TecnicaSudoku getTecnicaMaxima() {
+        return tecnicaMaxima;
+    }
+
+    /**
+     * Devuelve la puntuación de dificultad: la suma de los pesos de cada paso
+     * @return Puntuación de dificultad
+     */
+    public int getPuntuacion() {
+        return puntuacion;
+    }
+
+    /**
+     * Devuelve cuántas veces se aplicó una técnica
+     * @param tecnica Técnica a consultar
+     * @return Número de aplicaciones
+     */
+    public int getUsos(TecnicaSudoku tecnica) {
+        return usos[tecnica.ordinal()];
+    }
+
+    /**
+     * Traduce la técnica más difícil a un nivel de dificultad
+     * @return "facil" (solo singles), "medio" (pares e intersecciones) o "dificil" (el resto)
+     */
+    public String getDificultad() {
+        if (tecnicaMaxima == null || tecnicaMaxima.compareTo(TecnicaSudoku.SINGLE_DESNUDO) <= 0) {
+            return "facil";
+        }
+        if (tecnicaMaxima.compareTo(TecnicaSudoku.INTERSECCION) <= 0) {
+            return "medio";
+        }
+        return "dificil";
+    }
+
+    @Override
+    public String toString() {
+        return getDificultad() + " (" + puntuacion + " puntos"
+                + (tecnicaMaxima != null ? ", " + tecnicaMaxima.getNombre() : "") + ")";
+    }
+}
@@ -0,0 +1,599 @@
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Califica la dificultad real de un puzzle resolviéndolo como lo haría una persona:
+ * en cada paso aplica la técnica más sencilla de {@link TecnicaSudoku} que consigue
+ * avanzar (colocar un valor o descartar candidatos) y vuelve a empezar por la más
+ * sencilla. Si ninguna avanza, supone el valor correcto de una celda y sigue.
+ * Un calificador reutiliza sus arreglos entre puzzles y no es seguro entre hilos;
+ * para calificar muchos puzzles en paralelo está {@link #calificarLote(List)}.
+ */
+public class CalificadorSudoku {
+    // Un calificador por hilo de trabajo y tamaño de subcuadrícula para la calificación por lotes
+    private static final ThreadLocal<CalificadorSudoku[]> CALIFICADOR_POR_HILO =
+            ThreadLocal.withInitial(() -> new CalificadorSudoku[GeometriaSudoku.SUBCUADRICULA_MAXIMA + 1]);
+
+    private final GeometriaSudoku geometria;
+    private final int tamanio;
+    private final int numeroCeldas;
+
+    // Valor de cada celda (0 si está vacía) y candidatos que le quedan (0 si está rellena)
+    private final int[] valores;
+    private final int[] candidatos;
+    private int vacias;
+    // Veces que se aplicó cada técnica en el puzzle actual
+    private final int[] usos;
+    // Posiciones de un valor en cada fila o columna, usadas por X-Wing
+    private final int[] posiciones;
+
+    // Motor usado para conocer la solución cuando hay que suponer
+    private final ResolutorBitmask resolutor;
+    private final Tablero trabajo;
+    private final Tablero solucion;
+    private boolean solucionConocida;
+    // Última celda en la que se colocó un valor, para saber qué dedujo un paso
+    private int ultimaColocada;
+
+    /**
+     * Constructor que crea un calificador para tableros 9x9
+     */
+    public CalificadorSudoku() {
+        this(Sudoku.SUBCUADRICULA);
+    }
+
+    /**
+     * Constructor que crea un calificador para otro tamaño de tablero
+     * @param subcuadricula Tamaño de la subcuadrícula (2 a 5)
+     */
+    public CalificadorSudoku(int subcuadricula) {
+        geometria = GeometriaSudoku.de(subcuadricula);
+        tamanio = geometria.tamanio;
+        numeroCeldas = geometria.celdas;
+        valores = new int[numeroCeldas];
+        candidatos = new int[numeroCeldas];
+        usos = new int[TecnicaSudoku.values().length];
+        posiciones = new int[tamanio];
+        resolutor = new ResolutorBitmask(geometria, null);
+        trabajo = new Tablero(geometria);
+        solucion = new Tablero(geometria);
+    }
+
+    /**
+     * Califica un puzzle
+     * @param puzzle Puzzle del tamaño del calificador (0 para celdas vacías)
+     * @return Calificación del puzzle
+     */
+    public CalificacionSudoku calificar(int[][] puzzle) {
+        reiniciar();
+        boolean consistente = true;
+        for (int celda = 0; celda < numeroCeldas && consistente; celda++) {
+            consistente = cargarCelda(celda, puzzle[geometria.fila(celda)][geometria.columna(celda)]);
+        }
+        return consistente ? calificar() : new CalificacionSudoku(false, null, 0, usos.clone());
+    }
+
+    /**
+     * Califica un puzzle plano
+     * @param puzzle Puzzle del tamaño del calificador
+     * @return Calificación del puzzle
+     */
+    public CalificacionSudoku calificar(Tablero puzzle) {
+        reiniciar();
+        boolean consistente = true;
+        for (int celda = 0; celda < numeroCeldas && consistente; celda++) {
+            consistente = cargarCelda(celda, puzzle.get(celda));
+        }
+        return consistente ? calificar() : new CalificacionSudoku(false, null, 0, usos.clone());
+    }
+
+    /**
+     * Califica un puzzle plano del que ya se conoce la solución: si hace falta suponer,
+     * se parte de esa solución en lugar de volver a resolver el puzzle
+     * @param puzzle Puzzle del tamaño del calificador
+     * @param solucion Solución del puzzle
+     * @return Calificación del puzzle
+     */
+    public CalificacionSudoku calificar(Tablero puzzle, Tablero solucion) {
+        reiniciar();
+        boolean consistente = true;
+        for (int celda = 0; celda < numeroCeldas && consistente; celda++) {
+            consistente = cargarCelda(celda, puzzle.get(celda));
+        }
+        if (!consistente) {
+            return new CalificacionSudoku(false, null, 0, usos.clone());
+        }
+        this.solucion.copiarDe(solucion);
+        solucionConocida = true;
+        return calificar();
+    }
+
+    /**
+     * Busca el siguiente valor que se puede deducir en una partida a medio resolver:
+     * aplica pasos desde la técnica más sencilla hasta que uno coloca un valor
+     * @param tablero Valores colocados hasta ahora (sin valores equivocados)
+     * @param solucion Solución del puzzle si ya se conoce, o null para calcularla si hace falta suponer
+     * @return Pista con la técnica más difícil que hizo falta, o null si el tablero está
+     *         completo o no tiene solución
+     */
+    public Pista siguientePista(Tablero tablero, Tablero solucion) {
+        reiniciar();
+        for (int celda = 0; celda < numeroCeldas; celda++) {
+            if (!cargarCelda(celda, tablero.get(celda))) {
+                return null;
+            }
+        }
+        if (solucion != null) {
+            this.solucion.copiarDe(solucion);
+            solucionConocida = true;
+        }
+
+        TecnicaSudoku maxima = null;
+        while (vacias > 0) {
+            int antes = vacias;
+            TecnicaSudoku tecnica = siguientePaso();
+            if (tecnica == null) {
+                return null;
+            }
+            if (maxima == null || tecnica.compareTo(maxima) > 0) {
+                maxima = tecnica;
+            }
+            // Los pasos que solo descartan candidatos preparan el siguiente
+            if (vacias < antes) {
+                return new Pista(geometria.fila(ultimaColocada), geometria.columna(ultimaColocada),
+                        valores[ultimaColocada], maxima, false);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Califica un lote de puzzles en paralelo usando el pool común de ForkJoin.
+     * Cada hilo de trabajo usa sus propios calificadores.
+     * @param puzzles Puzzles a calificar (de cualquier tamaño admitido)
+     * @return Calificaciones en el mismo orden que los puzzles
+     */
+    public static List<CalificacionSudoku> calificarLote(List<int[][]> puzzles) {
+        return puzzles.parallelStream()
+                .map(CalificadorSudoku::calificarEnHilo)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Califica un lote de puzzles en paralelo dentro de un pool concreto
+     * @param puzzles Puzzles a calificar
+     * @param pool Pool de hilos donde repartir el trabajo
+     * @return Calificaciones en el mismo orden que los puzzles
+     */
+    public static List<CalificacionSudoku> calificarLote(List<int[][]> puzzles, ForkJoinPool pool) {
+        return pool.submit(() -> calificarLote(puzzles)).join();
+    }
+
+    /**
+     * Reparte un lote de puzzles según su dificultad real, calificándolos en paralelo
+     * @param puzzles Puzzles a repartir
+     * @return Puzzles agrupados por dificultad ("facil", "medio", "dificil"); los que no
+     *         tienen solución se descartan
+     */
+    public static Map<String, List<int[][]>> agruparPorDificultad(List<int[][]> puzzles) {
+        List<CalificacionSudoku> calificaciones = calificarLote(puzzles);
+        return IntStream.range(0, puzzles.size())
+                .filter(i -> calificaciones.get(i).isResuelto())
+                .boxed()
+                .collect(Collectors.groupingBy(i -> calificaciones.get(i).getDificultad(),
+                        Collectors.mapping(puzzles::get, Collectors.toList())));
+    }
+
+    /**
+     * Califica un puzzle con el calificador del hilo actual para su tamaño
+     * @param puzzle Puzzle a calificar
+     * @return Calificación del puzzle
+     */
+    private static CalificacionSudoku calificarEnHilo(int[][] puzzle) {
+        int subcuadricula = GeometriaSudoku.deTablero(puzzle).subcuadricula;
+        CalificadorSudoku[] calificadores = CALIFICADOR_POR_HILO.get();
+        if (calificadores[subcuadricula] == null) {
+            calificadores[subcuadricula] = new CalificadorSudoku(subcuadricula);
+        }
+        return calificadores[subcuadricula].calificar(puzzle);
+    }
+
+    /**
+     * Resuelve el puzzle cargado paso a paso y acumula la puntuación
+     * @return Calificación del puzzle
+     */
+    private CalificacionSudoku calificar() {
+        TecnicaSudoku maxima = null;
+        int puntuacion = 0;
+        while (vacias > 0) {
+            TecnicaSudoku tecnica = siguientePaso();
+            if (tecnica == null) {
+                return new CalificacionSudoku(false, maxima, puntuacion, usos.clone());
+            }
+            usos[tecnica.ordinal()]++;
+            puntuacion += tecnica.getPeso();
+            if (maxima == null || tecnica.compareTo(maxima) > 0) {
+                maxima = tecnica;
+            }
+        }
+        return new CalificacionSudoku(true, maxima, puntuacion, usos.clone());
+    }
+
+    /**
+     * Aplica la técnica más sencilla que consiga avanzar
+     * @return Técnica aplicada, o null si el puzzle no tiene solución
+     */
+    private TecnicaSudoku siguientePaso() {
+        for (int celda = 0; celda < numeroCeldas; celda++) {
+            if (valores[celda] == 0 && candidatos[celda] == 0) {
+                return null;
+            }
+        }
+        if (singleOculto()) {
+            return TecnicaSudoku.SINGLE_OCULTO;
+        }
+        if (singleDesnudo()) {
+            return TecnicaSudoku.SINGLE_DESNUDO;
+        }
+        if (parDesnudo()) {
+            return TecnicaSudoku.PAR_DESNUDO;
+        }
+        if (interseccion()) {
+            return TecnicaSudoku.INTERSECCION;
+        }
+        if (xWing()) {
+            return TecnicaSudoku.X_WING;
+        }
+        if (xyWing()) {
+            return TecnicaSudoku.XY_WING;
+        }
+        if (suponer()) {
+            return TecnicaSudoku.SUPOSICION;
+        }
+        return null;
+    }
+
+    /**
+     * Coloca un valor que solo cabe en una celda de alguna unidad
+     * @return true si se colocó un valor
+     */
+    private boolean singleOculto() {
+        for (int unidad = 0; unidad < geometria.numeroUnidades; unidad++) {
+            int unaVez = 0;
+            int variasVeces = 0;
+            for (int i = 0; i < tamanio; i++) {
+                int c = candidatos[geometria.celdaDeUnidad(unidad, i)];
+                variasVeces |= unaVez & c;
+                unaVez |= c;
+            }
+            int unicos = unaVez & ~variasVeces;
+            if (unicos == 0) {
+                continue;
+            }
+            int bit = unicos & -unicos;
+            for (int i = 0; i < tamanio; i++) {
+                int celda = geometria.celdaDeUnidad(unidad, i);
+                if ((candidatos[celda] & bit) != 0) {
+                    colocar(celda, Integer.numberOfTrailingZeros(bit));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Coloca el valor de una celda que solo tiene un candidato
+     * @return true si se colocó un valor
+     */
+    private boolean singleDesnudo() {
+        for (int celda = 0; celda < numeroCeldas; celda++) {
+            int c = candidatos[celda];
+            if (c != 0 && (c & (c - 1)) == 0) {
+                colocar(celda, Integer.numberOfTrailingZeros(c));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Busca dos celdas de una unidad con los mismos dos candidatos y descarta esos
+     * valores del resto de la unidad
+     * @return true si se descartó algún candidato
+     */
+    private boolean parDesnudo() {
+        for (int unidad = 0; unidad < geometria.numeroUnidades; unidad++) {
+            for (int i = 0; i < tamanio; i++) {
+                int par = candidatos[geometria.celdaDeUnidad(unidad, i)];
+                if (Integer.bitCount(par) != 2) {
+                    continue;
+                }
+                for (int j = i + 1; j < tamanio; j++) {
+                    if (candidatos[geometria.celdaDeUnidad(unidad, j)] != par) {
+                        continue;
+                    }
+                    boolean cambio = false;
+                    for (int k = 0; k < tamanio; k++) {
+                        if (k != i && k != j) {
+                            cambio |= eliminar(geometria.celdaDeUnidad(unidad, k), par);
+                        }
+                    }
+                    if (cambio) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Busca un valor que, dentro de una subcuadrícula, solo aparece en una fila o columna
+     * (y lo descarta del resto de esa línea), o que dentro de una fila o columna solo
+     * aparece en una subcuadrícula (y lo descarta del resto de la subcuadrícula)
+     * @return true si se descartó algún candidato
+     */
+    private boolean interseccion() {
+        for (int unidad = 0; unidad < geometria.numeroUnidades; unidad++) {
+            boolean esCaja = unidad >= 2 * tamanio;
+            for (int valor = 1; valor <= tamanio; valor++) {
+                int bit = 1 << valor;
+                int fila = -1;
+                int columna = -1;
+                int caja = -1;
+                int cuenta = 0;
+                for (int i = 0; i < tamanio; i++) {
+                    int celda = geometria.celdaDeUnidad(unidad, i);
+                    if ((candidatos[celda] & bit) == 0) {
+                        continue;
+                    }
+                    if (cuenta++ == 0) {
+                        fila = geometria.fila(celda);
+                        columna = geometria.columna(celda);
+                        caja = geometria.caja(celda);
+                    } else {
+                        fila = fila == geometria.fila(celda) ? fila : -1;
+                        columna = columna == geometria.columna(celda) ? columna : -1;
+                        caja = caja == geometria.caja(celda) ? caja : -1;
+                    }
+                }
+                if (cuenta < 2) {
+                    continue;
+                }
+
+                // Unidad que contiene todas las apariciones y de la que se descarta el valor
+                int destino;
+                if (esCaja) {
+                    destino = fila >= 0 ? fila : columna >= 0 ? tamanio + columna : -1;
+                } else {
+                    destino = caja >= 0 ? 2 * tamanio + caja : -1;
+                }
+                if (destino < 0) {
+                    continue;
+                }
+                boolean cambio = false;
+                for (int i = 0; i < tamanio; i++) {
+                    int celda = geometria.celdaDeUnidad(destino, i);
+                    if (!pertenece(celda, unidad)) {
+                        cambio |= eliminar(celda, bit);
+                    }
+                }
+                if (cambio) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Busca un valor que en dos filas solo aparece en las mismas dos columnas (y lo
+     * descarta del resto de esas columnas), o lo mismo intercambiando filas y columnas
+     * @return true si se descartó algún candidato
+     */
+    private boolean xWing() {
+        for (int valor = 1; valor <= tamanio; valor++) {
+            int bit = 1 << valor;
+            // base 0: filas que cruzan columnas; base tamanio: columnas que cruzan filas
+            for (int base = 0; base <= tamanio; base += tamanio) {
+                int cruce = tamanio - base;
+                for (int linea = 0; linea < tamanio; linea++) {
+                    int mascara = 0;
+                    for (int i = 0; i < tamanio; i++) {
+                        if ((candidatos[geometria.celdaDeUnidad(base + linea, i)] & bit) != 0) {
+                            mascara |= 1 << i;
+                        }
+                    }
+                    posiciones[linea] = mascara;
+                }
+                for (int a = 0; a < tamanio; a++) {
+                    if (Integer.bitCount(posiciones[a]) != 2) {
+                        continue;
+                    }
+                    for (int b = a + 1; b < tamanio; b++) {
+                        if (posiciones[b] != posiciones[a]) {
+                            continue;
+                        }
+                        boolean cambio = false;
+                        for (int m = posiciones[a]; m != 0; m &= m - 1) {
+                            int otra = cruce + Integer.numberOfTrailingZeros(m);
+                            for (int i = 0; i < tamanio; i++) {
+                                if (i != a && i != b) {
+                                    cambio |= eliminar(geometria.celdaDeUnidad(otra, i), bit);
+                                }
+                            }
+                        }
+                        if (cambio) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Busca un pivote con candidatos {x,y} que ve dos pinzas {x,z} e {y,z}: en cualquier
+     * caso una de las pinzas vale z, así que z se descarta de las celdas que ven a ambas
+     * @return true si se descartó algún candidato
+     */
+    private boolean xyWing() {
+        for (int pivote = 0; pivote < numeroCeldas; pivote++) {
+            int xy = candidatos[pivote];
+            if (Integer.bitCount(xy) != 2) {
+                continue;
+            }
+            for (int i = 0; i < geometria.numeroPares; i++) {
+                int pinzaA = geometria.par(pivote, i);
+                int xz = candidatos[pinzaA];
+                if (Integer.bitCount(xz) != 2 || Integer.bitCount(xz & xy) != 1) {
+                    continue;
+                }
+                int z = xz & ~xy;
+                int yz = (xy & ~xz) | z;
+                for (int j = 0; j < geometria.numeroPares; j++) {
+                    int pinzaB = geometria.par(pivote, j);
+                    if (candidatos[pinzaB] != yz) {
+                        continue;
+                    }
+                    boolean cambio = false;
+                    for (int k = 0; k < geometria.numeroPares; k++) {
+                        int celda = geometria.par(pinzaA, k);
+                        if (celda != pinzaB && esVecina(celda, pinzaB)) {
+                            cambio |= eliminar(celda, z);
+                        }
+                    }
+                    if (cambio) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Coloca en la celda con menos candidatos su valor en la solución del puzzle
+     * @return false si el puzzle no tiene solución
+     */
+    private boolean suponer() {
+        if (!solucionConocida) {
+            for (int celda = 0; celda < numeroCeldas; celda++) {
+                trabajo.set(celda, valores[celda]);
+            }
+            if (!resolutor.cargar(trabajo) || !resolutor.resolver()) {
+                return false;
+            }
+            resolutor.copiarEn(solucion);
+            solucionConocida = true;
+        }
+
+        int mejor = -1;
+        for (int celda = 0; celda < numeroCeldas; celda++) {
+            if (candidatos[celda] != 0
+                    && (mejor < 0 || Integer.bitCount(candidatos[celda]) < Integer.bitCount(candidatos[mejor]))) {
+                mejor = celda;
+            }
+        }
+        int valor = solucion.get(mejor);
+        if ((candidatos[mejor] & (1 << valor)) == 0) {
+            return false;
+        }
+        colocar(mejor, valor);
+        return true;
+    }
+
+    /**
+     * Deja el calificador vacío antes de cargar un puzzle
+     */
+    private void reiniciar() {
+        for (int celda = 0; celda < numeroCeldas; celda++) {
+            valores[celda] = 0;
+            candidatos[celda] = geometria.todos;
+        }
+        for (int i = 0; i < usos.length; i++) {
+            usos[i] = 0;
+        }
+        vacias = numeroCeldas;
+        solucionConocida = false;
+    }
+
+    /**
+     * Carga el valor inicial de una celda
+     * @param celda Índice de la celda
+     * @param valor Valor inicial (0 si está vacía)
+     * @return false si el valor ya está en una celda vecina
+     */
+    private boolean cargarCelda(int celda, int valor) {
+        if (valor == 0) {
+            return true;
+        }
+        if ((candidatos[celda] & (1 << valor)) == 0) {
+            return false;
+        }
+        colocar(celda, valor);
+        return true;
+    }
+
+    /**
+     * Coloca un valor y lo descarta de los candidatos de las celdas vecinas
+     * @param celda Índice de la celda
+     * @param valor Valor a colocar
+     */
+    private void colocar(int celda, int valor) {
+        int bit = 1 << valor;
+        valores[celda] = valor;
+        candidatos[celda] = 0;
+        ultimaColocada = celda;
+        for (int k = 0; k < geometria.numeroPares; k++) {
+            candidatos[geometria.par(celda, k)] &= ~bit;
+        }
+        vacias--;
+    }
+
+    /**
+     * Descarta candidatos de una celda
+     * @param celda Índice de la celda
+     * @param mascara Valores a descartar
+     * @return true si la celda tenía alguno de esos candidatos
+     */
+    private boolean eliminar(int celda, int mascara) {
+        if ((candidatos[celda] & mascara) == 0) {
+            return false;
+        }
+        candidatos[celda] &= ~mascara;
+        return true;
+    }
+
+    /**
+     * Comprueba si una celda pertenece a una unidad
+     * @param celda Índice de la celda
+     * @param unidad Índice de la unidad
+     * @return true si la celda está en la unidad
+     */
+    private boolean pertenece(int celda, int unidad) {
+        if (unidad < tamanio) {
+            return geometria.fila(celda) == unidad;
+        }
+        if (unidad < 2 * tamanio) {
+            return geometria.columna(celda) == unidad - tamanio;
+        }
+        return geometria.caja(celda) == unidad - 2 * tamanio;
+    }
+
+    /**
+     * Comprueba si dos celdas distintas comparten fila, columna o subcuadrícula
+     * @param a Índice de la primera celda
+     * @param b Índice de la segunda celda
+     * @return true si son vecinas
+     */
+    private boolean esVecina(int a, int b) {
+        return a != b && (geometria.fila(a) == geometria.fila(b) || geometria.columna(a) == geometria.columna(b)
+                || geometria.caja(a) == geometria.caja(b));
+    }
+}
@@ -0,0 +1,325 @@
+import java.util.Arrays;
+
+/**
+ * Calcula la forma canónica de un tablero: el representante mínimo de todos los tableros
+ * equivalentes por las simetrías del Sudoku (trasponer, permutar bandas y filas dentro de
+ * cada banda, permutar pilas y columnas dentro de cada pila y renombrar los valores).
+ * Dos puzzles son equivalentes si y solo si tienen la misma forma canónica.
+ *
+ * La forma canónica es el tablero cuya lectura fila a fila es lexicográficamente mínima,
+ * numerando los valores por orden de aparición y con las celdas vacías como 0. Se
+ * construye fila a fila conservando solo las transformaciones parciales empatadas en el
+ * mínimo, así que casi todas las ramas se descartan tras la primera fila. Se supone
+ * que el tablero no repite valores en ninguna fila.
+ * Solo admite tableros de 4x4 y 9x9: en 16x16 las permutaciones de columnas son millones.
+ * Un canonizador reutiliza sus arreglos entre tableros y no es seguro entre hilos.
+ */
+public class CanonizadorSudoku {
+    // Subcuadrícula máxima admitida
+    public static final int SUBCUADRICULA_MAXIMA = 3;
+
+    private final GeometriaSudoku geometria;
+    private final int tamanio;
+
+    // Permutaciones de columnas que respetan las pilas: columnasPermutadas[p * tamanio + c]
+    // es la columna original que pasa a la posición c con la permutación p
+    private final int[] columnasPermutadas;
+    private final int numeroPermutaciones;
+
+    // Valores del tablero sin trasponer (0..celdas-1) y traspuesto (celdas..2*celdas-1)
+    private final int[] origen;
+    // Código de cada fila de la forma canónica (4 bits por celda, la primera la más significativa)
+    private final long[] filasCanonicas;
+    // Filas que pueden ir primero sin trasponer (posición 0) y trasponiendo (posición 1)
+    private final int[] filasIniciales = new int[2];
+
+    // Transformaciones parciales empatadas: actuales y siguientes
+    private Estados actuales = new Estados();
+    private Estados siguientes = new Estados();
+
+    /**
+     * Constructor que crea un canonizador para tableros 9x9
+     */
+    public CanonizadorSudoku() {
+        this(Sudoku.SUBCUADRICULA);
+    }
+
+    /**
+     * Constructor que crea un canonizador para otro tamaño de tablero
+     * @param subcuadricula Tamaño de la subcuadrícula (2 o 3)
+     */
+    public CanonizadorSudoku(int subcuadricula) {
+        if (subcuadricula > SUBCUADRICULA_MAXIMA) {
+            throw new IllegalArgumentException("La forma canónica solo se calcula hasta 9x9: " + subcuadricula);
+        }
+        geometria = GeometriaSudoku.de(subcuadricula);
+        tamanio = geometria.tamanio;
+        origen = new int[2 * geometria.celdas];
+        filasCanonicas = new long[tamanio];
+
+        int[][] dentroDePila = permutaciones(subcuadricula);
+        int porPila = dentroDePila.length;
+        int combinacionesDentro = 1;
+        for (int i = 0; i < subcuadricula; i++) {
+            combinacionesDentro *= porPila;
+        }
+        numeroPermutaciones = porPila * combinacionesDentro;
+        columnasPermutadas = new int[numeroPermutaciones * tamanio];
+        int p = 0;
+        for (int[] pilas : dentroDePila) {
+            for (int combinacion = 0; combinacion < combinacionesDentro; combinacion++) {
+                int resto = combinacion;
+                for (int pila = 0; pila < subcuadricula; pila++) {
+                    int[] dentro = dentroDePila[resto % porPila];
+                    resto /= porPila;
+                    for (int j = 0; j < subcuadricula; j++) {
+                        columnasPermutadas[p * tamanio + pila * subcuadricula + j] =
+                                pilas[pila] * subcuadricula + dentro[j];
+                    }
+                }
+                p++;
+            }
+        }
+    }
+
+    /**
+     * Calcula la forma canónica de un tablero
+     * @param tablero Tablero o puzzle del tamaño del canonizador
+     * @return Forma canónica (0 en las celdas vacías)
+     */
+    public Tablero canonizar(Tablero tablero) {
+        calcular(tablero);
+        Tablero canonico = new Tablero(geometria);
+        for (int f = 0; f < tamanio; f++) {
+            long codigo = filasCanonicas[f];
+            for (int c = tamanio - 1; c >= 0; c--) {
+                canonico.set(f, c, (int) (codigo & 0xF));
+                codigo >>>= 4;
+            }
+        }
+        return canonico;
+    }
+
+    /**
+     * Calcula la forma canónica de un tablero en forma de matriz
+     * @param tablero Tablero o puzzle del tamaño del canonizador
+     * @return Forma canónica (0 en las celdas vacías)
+     */
+    public int[][] canonizar(int[][] tablero) {
+        return canonizar(Tablero.desdeMatriz(tablero)).aMatriz();
+    }
+
+    /**
+     * Calcula la clave canónica de un tablero: su forma canónica con 4 bits por celda,
+     * 16 celdas por long. Dos tableros equivalentes tienen siempre la misma clave.
+     * @param tablero Tablero o puzzle del tamaño del canonizador
+     * @return Clave canónica
+     */
+    public long[] clave(Tablero tablero) {
+        calcular(tablero);
+        long[] clave = new long[(geometria.celdas + 15) / 16];
+        int celda = 0;
+        for (int f = 0; f < tamanio; f++) {
+            for (int c = 0; c < tamanio; c++, celda++) {
+                long valor = (filasCanonicas[f] >>> (4 * (tamanio - 1 - c))) & 0xF;
+                clave[celda >>> 4] |= valor << (4 * (celda & 15));
+            }
+        }
+        return clave;
+    }
+
+    /**
+     * Recorre las transformaciones fila a fila y deja en filasCanonicas los códigos mínimos
+     * @param tablero Tablero a canonizar
+     */
+    private void calcular(Tablero tablero) {
+        int celdas = geometria.celdas;
+        for (int celda = 0; celda < celdas; celda++) {
+            origen[celda] = tablero.get(celda);
+            origen[celdas + celda] = tablero.get(geometria.columna(celda), geometria.fila(celda));
+        }
+
+        // Como los valores de una fila no se repiten, el código mínimo de la primera fila solo
+        // depende de qué celdas están vacías: basta probar las filas con el patrón mínimo
+        int b = geometria.subcuadricula;
+        int mejorPatron = Integer.MAX_VALUE;
+        for (int traspuesto = 0; traspuesto < 2; traspuesto++) {
+            for (int fila = 0; fila < tamanio; fila++) {
+                int patron = patronMinimo(traspuesto * celdas + fila * tamanio);
+                if (patron < mejorPatron) {
+                    mejorPatron = patron;
+                    filasIniciales[0] = 0;
+                    filasIniciales[1] = 0;
+                }
+                if (patron == mejorPatron) {
+                    filasIniciales[traspuesto] |= 1 << fila;
+                }
+            }
+        }
+
+        // Estados iniciales: cada trasposición útil con cada permutación de columnas, sin filas ni valores
+        actuales.vaciar();
+        for (int traspuesto = 0; traspuesto < 2; traspuesto++) {
+            for (int p = 0; filasIniciales[traspuesto] != 0 && p < numeroPermutaciones; p++) {
+                actuales.agregar(traspuesto, p, 0, -1, 0L, 1);
+            }
+        }
+
+        for (int posicion = 0; posicion < tamanio; posicion++) {
+            long minimo = Long.MAX_VALUE;
+            siguientes.vaciar();
+            for (int e = 0; e < actuales.cantidad; e++) {
+                int usadas = actuales.filasUsadas[e];
+                int banda = actuales.banda[e];
+                // Al empezar una banda vale cualquier fila de una banda sin usar; dentro de
+                // una banda, cualquier fila sin usar de la misma banda
+                int desde = posicion % b == 0 ? 0 : banda * b;
+                int hasta = posicion % b == 0 ? tamanio : desde + b;
+                for (int fila = desde; fila < hasta; fila++) {
+                    if ((usadas & (1 << fila)) != 0
+                            || (posicion % b == 0 && (usadas & (((1 << b) - 1) << (fila / b * b))) != 0)
+                            || (posicion == 0 && (filasIniciales[actuales.traspuesto[e]] & (1 << fila)) == 0)) {
+                        continue;
+                    }
+                    long etiquetas = actuales.etiquetas[e];
+                    int siguiente = actuales.siguienteEtiqueta[e];
+                    long codigo = 0;
+                    boolean descartada = false;
+                    int base = actuales.traspuesto[e] * celdas + fila * tamanio;
+                    int permutacion = actuales.permutacion[e] * tamanio;
+                    for (int c = 0; c < tamanio; c++) {
+                        int valor = origen[base + columnasPermutadas[permutacion + c]];
+                        int etiqueta = 0;
+                        if (valor != 0) {
+                            etiqueta = (int) ((etiquetas >>> (4 * valor)) & 0xF);
+                            if (etiqueta == 0) {
+                                etiqueta = siguiente++;
+                                etiquetas |= (long) etiqueta << (4 * valor);
+                            }
+                        }
+                        codigo = (codigo << 4) | etiqueta;
+                        if (codigo > minimo >>> (4 * (tamanio - 1 - c))) {
+                            // El prefijo ya supera al mínimo
+                            descartada = true;
+                            break;
+                        }
+                    }
+                    if (descartada) {
+                        continue;
+                    }
+                    if (codigo < minimo) {
+                        minimo = codigo;
+                        siguientes.vaciar();
+                    }
+                    siguientes.agregar(actuales.traspuesto[e], actuales.permutacion[e],
+                            usadas | (1 << fila), fila / b, etiquetas, siguiente);
+                }
+            }
+            filasCanonicas[posicion] = minimo;
+            Estados temporal = actuales;
+            actuales = siguientes;
+            siguientes = temporal;
+        }
+    }
+
+    /**
+     * Calcula el patrón de celdas vacías (0) y rellenas (1) más pequeño que puede tener una
+     * fila al permutar sus columnas: en cada pila las vacías primero, y las pilas ordenadas
+     * de menos a más celdas rellenas
+     * @param inicio Posición de la fila en el arreglo de origen
+     * @return Patrón mínimo, un bit por celda con la primera como la más significativa
+     */
+    private int patronMinimo(int inicio) {
+        int b = geometria.subcuadricula;
+        int[] rellenas = new int[b];
+        for (int c = 0; c < tamanio; c++) {
+            if (origen[inicio + c] != 0) {
+                rellenas[c / b]++;
+            }
+        }
+        Arrays.sort(rellenas);
+        int patron = 0;
+        for (int k : rellenas) {
+            patron = (patron << b) | ((1 << k) - 1);
+        }
+        return patron;
+    }
+
+    /**
+     * Genera todas las permutaciones de 0..n-1
+     * @param n Número de elementos
+     * @return Permutaciones en orden lexicográfico
+     */
+    private static int[][] permutaciones(int n) {
+        int total = 1;
+        for (int i = 2; i <= n; i++) {
+            total *= i;
+        }
+        int[][] resultado = new int[total][];
+        int[] actual = new int[n];
+        for (int i = 0; i < n; i++) {
+            actual[i] = i;
+        }
+        for (int k = 0; k < total; k++) {
+            resultado[k] = actual.clone();
+            // Siguiente permutación en orden lexicográfico
+            int i = n - 2;
+            while (i >= 0 && actual[i] >= actual[i + 1]) {
+                i--;
+            }
+            if (i < 0) {
+                break;
+            }
+            int j = n - 1;
+            while (actual[j] <= actual[i]) {
+                j--;
+            }
+            int temporal = actual[i];
+            actual[i] = actual[j];
+            actual[j] = temporal;
+            for (int a = i + 1, z = n - 1; a < z; a++, z--) {
+                temporal = actual[a];
+                actual[a] = actual[z];
+                actual[z] = temporal;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Transformaciones parciales guardadas como arreglos paralelos que crecen según haga falta
+     */
+    private static final class Estados {
+        int cantidad;
+        int[] traspuesto = new int[64];
+        int[] permutacion = new int[64];
+        int[] filasUsadas = new int[64];
+        int[] banda = new int[64];
+        // Etiqueta asignada a cada valor original, 4 bits por valor (0 = sin asignar)
+        long[] etiquetas = new long[64];
+        int[] siguienteEtiqueta = new int[64];
+
+        void vaciar() {
+            cantidad = 0;
+        }
+
+        void agregar(int traspuesto, int permutacion, int filasUsadas, int banda, long etiquetas, int siguiente) {
+            if (cantidad == this.traspuesto.length) {
+                int capacidad = cantidad * 2;
+                this.traspuesto = Arrays.copyOf(this.traspuesto, capacidad);
+                this.permutacion = Arrays.copyOf(this.permutacion, capacidad);
+                this.filasUsadas = Arrays.copyOf(this.filasUsadas, capacidad);
+                this.banda = Arrays.copyOf(this.banda, capacidad);
+                this.etiquetas = Arrays.copyOf(this.etiquetas, capacidad);
+                this.siguienteEtiqueta = Arrays.copyOf(this.siguienteEtiqueta, capacidad);
+            }
+            this.traspuesto[cantidad] = traspuesto;
+            this.permutacion[cantidad] = permutacion;
+            this.filasUsadas[cantidad] = filasUsadas;
+            this.banda[cantidad] = banda;
+            this.etiquetas[cantidad] = etiquetas;
+            this.siguienteEtiqueta[cantidad] = siguiente;
+            cantidad++;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Diario de los movimientos de una partida. Cada movimiento se guarda en un único long
+ * (celda, valor anterior, valor nuevo y milisegundos desde el movimiento anterior) en un
+ * arreglo que crece según hace falta, así que registrar, deshacer y rehacer cuestan O(1)
+ * y no se copia nunca el tablero.
+ *
+ * Los movimientos deshechos se conservan hasta que se registra uno nuevo, igual que en un
+ * editor: a partir de ese momento ya no se pueden rehacer.
+ */
+public final class DiarioMovimientos {
+    // Bits de cada campo de un movimiento: hasta 1024 celdas y valores hasta 31 (tableros de hasta 25x25)
+    private static final int BITS_CELDA = 10;
+    private static final int BITS_VALOR = 5;
+    private static final int DESPLAZAMIENTO_ANTERIOR = BITS_CELDA;
+    private static final int DESPLAZAMIENTO_NUEVO = BITS_CELDA + BITS_VALOR;
+    private static final int DESPLAZAMIENTO_TIEMPO = BITS_CELDA + 2 * BITS_VALOR;
+    // El tiempo ocupa el resto del long: más de 500 años entre dos movimientos
+    private static final long TIEMPO_MAXIMO = -1L >>> DESPLAZAMIENTO_TIEMPO;
+
+    private long[] movimientos = new long[64];
+    // Movimientos registrados (incluidos los deshechos que aún se pueden rehacer)
+    private int cantidad;
+    // Movimientos aplicados: los de 0 a posicion - 1
+    private int posicion;
+    // Instante de inicio de la partida y del último movimiento aplicado (ms)
+    private long inicio;
+    private long ultimo;
+
+    /**
+     * Constructor que crea un diario vacío que empieza ahora
+     */
+    public DiarioMovimientos() {
+        reiniciar(System.currentTimeMillis());
+    }
+
+    /**
+     * Vacía el diario para empezar una partida nueva
+     * @param instante Instante de inicio de la partida (ms)
+     */
+    public void reiniciar(long instante) {
+        cantidad = 0;
+        posicion = 0;
+        inicio = instante;
+        ultimo = instante;
+    }
+
+    /**
+     * Registra un movimiento hecho ahora; descarta los movimientos deshechos
+     * @param celda Índice de la celda
+     * @param anterior Valor que tenía la celda (0 si estaba vacía)
+     * @param nuevo Valor nuevo de la celda (0 si se vació)
+     */
+    public void registrar(int celda, int anterior, int nuevo) {
+        registrar(celda, anterior, nuevo, System.currentTimeMillis());
+    }
+
+    /**
+     * Registra un movimiento; descarta los movimientos deshechos
+     * @param celda Índice de la celda
+     * @param anterior Valor que tenía la celda (0 si estaba vacía)
+     * @param nuevo Valor nuevo de la celda (0 si se vació)
+     * @param instante Instante del movimiento (ms)
+     */
+    public void registrar(int celda, int anterior, int nuevo, long instante) {
+        if (cantidad > posicion) {
+            // Los movimientos deshechos dejan de poder rehacerse
+            cantidad = posicion;
+        }
+        if (cantidad == movimientos.length) {
+            movimientos = Arrays.copyOf(movimientos, cantidad * 2);
+        }
+        long transcurrido = Math.min(Math.max(0, instante - ultimo), TIEMPO_MAXIMO);
+        movimientos[cantidad++] = empaquetar(celda, anterior, nuevo, transcurrido);
+        posicion = cantidad;
+        ultimo += transcurrido;
+    }
+
+    /**
+     * Retrocede un movimiento
+     * @return Movimiento deshecho (ver {@link #celda(long)} y siguientes), o -1 si no hay ninguno
+     */
+    public long deshacer() {
+        if (posicion == 0) {
+            return -1;
+        }
+        long movimiento = movimientos[--posicion];
+        ultimo -= transcurrido(movimiento);
+        return movimiento;
+    }
+
+    /**
+     * Vuelve a aplicar el último movimiento deshecho
+     * @return Movimiento rehecho, o -1 si no hay ninguno
+     */
+    public long rehacer() {
+        if (posicion == cantidad) {
+            return -1;
+        }
+        long movimiento = movimientos[posicion++];
+        ultimo += transcurrido(movimiento);
+        return movimiento;
+    }
+
+    /**
+     * Indica si hay algún movimiento que deshacer
+     * @return true si se puede deshacer
+     */
+    public boolean puedeDeshacer() {
+        return posicion > 0;
+    }
+
+    /**
+     * Indica si hay algún movimiento deshecho que rehacer
+     * @return true si se puede rehacer
+     */
+    public boolean puedeRehacer() {
+        return posicion < cantidad;
+    }
+
+    /**
+     * Devuelve el número de movimientos registrados, incluidos los deshechos
+     * @return Número de movimientos
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Devuelve el número de movimientos aplicados
+     * @return Posición actual en el diario
+     */
+    public int getPosicion() {
+        return posicion;
+    }
+
+    /**
+     * Devuelve un movimiento registrado
+     * @param indice Índice del movimiento (0 a cantidad - 1)
+     * @return Movimiento empaquetado
+     */
+    public long movimiento(int indice) {
+        if (indice < 0 || indice >= cantidad) {
+            throw new IndexOutOfBoundsException("No hay movimiento " + indice + " en el diario");
+        }
+        return movimientos[indice];
+    }
+
+    /**
+     * Devuelve el instante de inicio de la partida
+     * @return Instante en milisegundos
+     */
+    public long getInicio() {
+        return inicio;
+    }
+
+    /**
+     * Devuelve el instante en que se hizo el último movimiento aplicado (o el inicio si no hay)
+     * @return Instante en milisegundos
+     */
+    public long getUltimo() {
+        return ultimo;
+    }
+
+    /**
+     * Extrae la celda de un movimiento
+     * @param movimiento Movimiento empaquetado
+     * @return Índice de la celda
+     */
+    public static int celda(long movimiento) {
+        return (int) movimiento & ((1 << BITS_CELDA) - 1);
+    }
+
+    /**
+     * Extrae el valor anterior de un movimiento
+     * @param movimiento Movimiento empaquetado
+     * @return Valor que tenía la celda
+     */
+    public static int anterior(long movimiento) {
+        return (int) (movimiento >>> DESPLAZAMIENTO_ANTERIOR) & ((1 << BITS_VALOR) - 1);
+    }
+
+    /**
+     * Extrae el valor nuevo de un movimiento
+     * @param movimiento Movimiento empaquetado
+     * @return Valor que se puso en la celda
+     */
+    public static int nuevo(long movimiento) {
+        return (int) (movimiento >>> DESPLAZAMIENTO_NUEVO) & ((1 << BITS_VALOR) - 1);
+    }
+
+    /**
+     * Extrae el tiempo transcurrido desde el movimiento anterior
+     * @param movimiento Movimiento empaquetado
+     * @return Milisegundos desde el movimiento anterior (o desde el inicio)
+     */
+    public static long transcurrido(long movimiento) {
+        return movimiento >>> DESPLAZAMIENTO_TIEMPO;
+    }
+
+    /**
+     * Serializa el diario: inicio, número de movimientos, posición y cada movimiento
+     * como entero de longitud variable (como mucho 5 bytes por movimiento si entre dos movimientos pasan menos de 2 s)
+     * @return Bytes del diario
+     */
+    public byte[] aBytes() {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(16 + 4 * cantidad);
+        escribir(salida);
+        return salida.toByteArray();
+    }
+
+    /**
+     * Reconstruye un diario serializado con {@link #aBytes()}
+     * @param datos Bytes del diario
+     * @return Diario con los mismos movimientos y la misma posición
+     */
+    public static DiarioMovimientos desdeBytes(byte[] datos) {
+        return leer(ByteBuffer.wrap(datos));
+    }
+
+    /**
+     * Escribe el diario en un flujo de bytes
+     * @param salida Flujo donde escribirlo
+     */
+    void escribir(ByteArrayOutputStream salida) {
+        escribirVariable(salida, inicio);
+        escribirVariable(salida, cantidad);
+        escribirVariable(salida, posicion);
+        for (int i = 0; i < cantidad; i++) {
+            escribirVariable(salida, movimientos[i]);
+        }
+    }
+
+    /**
+     * Lee un diario escrito con {@link #escribir(ByteArrayOutputStream)}
+     * @param entrada Bytes a leer, desde su posición actual
+     * @return Diario leído
+     */
+    static DiarioMovimientos leer(ByteBuffer entrada) {
+        try {
+            DiarioMovimientos diario = new DiarioMovimientos();
+            diario.reiniciar(leerVariable(entrada));
+            long cantidad = leerVariable(entrada);
+            long posicion = leerVariable(entrada);
+            // Un varint de 10 bytes puede dar un long negativo
+            if (cantidad < 0 || cantidad > Integer.MAX_VALUE || cantidad > entrada.remaining()
+                    || posicion < 0 || posicion > cantidad) {
+                throw new IllegalArgumentException("Diario de movimientos corrupto");
+            }
+            diario.movimientos = new long[Math.max(64, (int) cantidad)];
+            for (int i = 0; i < cantidad; i++) {
+                diario.movimientos[i] = leerVariable(entrada);
+            }
+            diario.cantidad = (int) cantidad;
+            for (int i = 0; i < posicion; i++) {
+                diario.rehacer();
+            }
+            return diario;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Diario de movimientos incompleto", e);
+        }
+    }
+
+    /**
+     * Empaqueta un movimiento en un long
+     * @param celda Índice de la celda
+     * @param anterior Valor anterior
+     * @param nuevo Valor nuevo
+     * @param transcurrido Milisegundos desde el movimiento anterior
+     * @return Movimiento empaquetado
+     */
+    private static long empaquetar(int celda, int anterior, int nuevo, long transcurrido) {
+        if (celda < 0 || celda >= 1 << BITS_CELDA || anterior < 0 || anterior >= 1 << BITS_VALOR
+                || nuevo < 0 || nuevo >= 1 << BITS_VALOR) {
+            throw new IllegalArgumentException("Movimiento fuera de rango: celda " + celda
+                    + ", " + anterior + " -> " + nuevo);
+        }
+        return celda
+                | (long) anterior << DESPLAZAMIENTO_ANTERIOR
+                | (long) nuevo << DESPLAZAMIENTO_NUEVO
+                | transcurrido << DESPLAZAMIENTO_TIEMPO;
+    }
+
+    /**
+     * Escribe un long sin signo en grupos de 7 bits (LEB128)
+     * @param salida Flujo de salida
+     * @param valor Valor a escribir
+     */
+    private static void escribirVariable(ByteArrayOutputStream salida, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            salida.write((int) (valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        salida.write((int) valor);
+    }
+
+    /**
+     * Lee un long escrito con {@link #escribirVariable(ByteArrayOutputStream, long)}
+     * @param entrada Bytes a leer
+     * @return Valor leído
+     */
+    private static long leerVariable(ByteBuffer entrada) {
+        long valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+            byte b = entrada.get();
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if (b >= 0) {
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Entero de longitud variable demasiado largo");
+    }
+}
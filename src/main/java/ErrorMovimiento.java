@@ -0,0 +1,43 @@
+/**
+ * Motivos por los que se rechaza un movimiento. Validar solo devuelve la constante;
+ * el mensaje para el usuario se construye aparte y solo cuando hace falta mostrarlo.
+ */
+public enum ErrorMovimiento {
+    // La fila o la columna no están dentro del tablero
+    FUERA_DEL_TABLERO,
+    // El valor no está entre 1 y el tamaño del tablero
+    VALOR_FUERA_DE_RANGO,
+    // La celda es parte del tablero inicial
+    CELDA_FIJA,
+    // El valor ya está en la fila (incluida la propia celda)
+    REPETIDO_EN_FILA,
+    // El valor ya está en la columna
+    REPETIDO_EN_COLUMNA,
+    // El valor ya está en la subcuadrícula
+    REPETIDO_EN_SUBCUADRICULA;
+
+    /**
+     * Construye el mensaje legible del error
+     * @param fila Fila del movimiento
+     * @param columna Columna del movimiento
+     * @param valor Valor del movimiento
+     * @param tamanio Tamaño del tablero
+     * @return Mensaje para el usuario
+     */
+    public String mensaje(int fila, int columna, int valor, int tamanio) {
+        switch (this) {
+            case FUERA_DEL_TABLERO:
+                return "Posición fuera del tablero. Las filas y columnas deben estar entre 0 y " + (tamanio - 1) + ".";
+            case VALOR_FUERA_DE_RANGO:
+                return "El valor debe estar entre 1 y " + tamanio + ".";
+            case CELDA_FIJA:
+                return "Esta celda es parte del tablero inicial y no puede ser modificada.";
+            case REPETIDO_EN_FILA:
+                return "El valor " + valor + " ya existe en la fila " + fila + ".";
+            case REPETIDO_EN_COLUMNA:
+                return "El valor " + valor + " ya existe en la columna " + columna + ".";
+            default:
+                return "El valor " + valor + " ya existe en la subcuadrícula.";
+        }
+    }
+}
@@ -1,178 +1,431 @@
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
- * Clase que genera tableros de Sudoku válidos.
+ * Clase que genera tableros de Sudoku válidos de 4x4 a 25x25.
  */
 public class GeneradorSudoku {
-    private static final int TAMANIO = 9;
-    private static final int SUBCUADRICULA = 3;
-    private final Random random;
+    // Intentos de rellenar un tablero grande por backtracking antes de recurrir a un patrón barajado
+    private static final int INTENTOS_RELLENO = 5;
+    // Nodos por celda que puede visitar cada búsqueda en tableros mayores de 9x9. Cada pasada
+    // de propagación cuenta como un nodo, así que basta con un presupuesto pequeño
+    private static final int NODOS_POR_CELDA = 1;
+
+    private final GeometriaSudoku geometria;
+    // Fuente aleatoria propia del generador; con la misma semilla se obtiene el mismo puzzle
+    private SplittableRandom random;
+    // Motor de backtracking reutilizado entre llamadas
+    private final ResolutorBitmask resolutor;
+    // Motor usado para validar tableros y comprobar la unicidad de la solución
+    private final ResolutorSudoku resolutorValidacion;
+    // Número de comprobaciones de unicidad realizadas (para medir el coste de generación)
+    private long comprobacionesUnicidad;
+    // Orden en que se intentan vaciar las celdas, reutilizado entre puzzles
+    private final int[] posiciones;
+    // Destino del avance de vaciarCeldas (null si nadie lo sigue)
+    private ProgresoGeneracion progreso;
+
+    // Un generador por hilo de trabajo para la generación por lotes, cada uno con su propia fuente aleatoria
+    private static final ThreadLocal<GeneradorSudoku> GENERADOR_POR_HILO = ThreadLocal.withInitial(GeneradorSudoku::new);
+
+    /**
+     * Recibe el avance del vaciado de celdas, por ejemplo para mostrarlo en una barra de progreso
+     */
+    public interface ProgresoGeneracion {
+        /**
+         * Se llama después de cada comprobación de unicidad
+         * @param celdasVaciadas Celdas vaciadas hasta ahora
+         * @param celdasVacias Celdas que hay que vaciar en total
+         * @param comprobaciones Comprobaciones de unicidad hechas en este puzzle
+         */
+        void avance(int celdasVaciadas, int celdasVacias, int comprobaciones);
+    }
 
     /**
-     * Constructor que inicializa el generador
+     * Constructor que inicializa el generador con una semilla arbitraria
      */
     public GeneradorSudoku() {
-        random = new Random();
+        this(GeometriaSudoku.de(Sudoku.SUBCUADRICULA), new SplittableRandom(), null);
     }
 
     /**
-     * Genera un tablero de Sudoku completo y válido
-     * @return Matriz 9x9 con un Sudoku válido completo
+     * Constructor que inicializa un generador reproducible
+     * @param semilla Semilla de 64 bits; la misma semilla produce siempre los mismos tableros
      */
-    public int[][] generarTableroCompleto() {
-        int[][] tablero = new int[TAMANIO][TAMANIO];
+    public GeneradorSudoku(long semilla) {
+        this(GeometriaSudoku.de(Sudoku.SUBCUADRICULA), new SplittableRandom(semilla), null);
+    }
 
-        // Rellenar el tablero utilizando backtracking
-        resolverTablero(tablero);
+    /**
+     * Constructor que inicializa un generador para otro tamaño de tablero
+     * @param subcuadricula Tamaño de la subcuadrícula (2 a 5: tableros de 4x4 a 25x25)
+     */
+    public GeneradorSudoku(int subcuadricula) {
+        this(GeometriaSudoku.de(subcuadricula), new SplittableRandom(), null);
+    }
 
-        return tablero;
+    /**
+     * Constructor que inicializa un generador reproducible para otro tamaño de tablero
+     * @param subcuadricula Tamaño de la subcuadrícula (2 a 5: tableros de 4x4 a 25x25)
+     * @param semilla Semilla de 64 bits; la misma semilla produce siempre los mismos tableros
+     */
+    public GeneradorSudoku(int subcuadricula, long semilla) {
+        this(GeometriaSudoku.de(subcuadricula), new SplittableRandom(semilla), null);
     }
 
     /**
-     * Vacia celdas en un tablero completo para crear un puzzle
-     * @param tablero Tablero completo
-     * @param celdasVacias Número de celdas a vaciar
+     * Constructor que permite elegir el motor de validación
+     * @param resolutorValidacion Motor usado para resolver y validar tableros (por ejemplo {@link ResolutorDLX})
      */
-    public void vaciarCeldas(int[][] tablero, int celdasVacias) {
-        // Lista de todas las posiciones en el tablero
-        List<Integer> posiciones = new ArrayList<>();
-        for (int i = 0; i < TAMANIO * TAMANIO; i++) {
-            posiciones.add(i);
+    public GeneradorSudoku(ResolutorSudoku resolutorValidacion) {
+        this(GeometriaSudoku.de(Sudoku.SUBCUADRICULA), new SplittableRandom(), resolutorValidacion);
+    }
+
+    /**
+     * Constructor interno
+     * @param geometria Geometría de los tableros a generar
+     * @param random Fuente aleatoria propia del generador
+     * @param resolutorValidacion Motor de validación, o null para usar el motor de máscaras de bits
+     */
+    private GeneradorSudoku(GeometriaSudoku geometria, SplittableRandom random, ResolutorSudoku resolutorValidacion) {
+        this.geometria = geometria;
+        this.random = random;
+        posiciones = new int[geometria.celdas];
+        resolutor = new ResolutorBitmask(geometria, random);
+        this.resolutorValidacion = resolutorValidacion != null ? resolutorValidacion : resolutor;
+    }
+
+    /**
+     * Determina cuántas celdas vaciar según la dificultad en un tablero 9x9
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @return Número de celdas a vaciar
+     */
+    public static int celdasVaciasPara(String dificultad) {
+        switch (dificultad.toLowerCase()) {
+            case "facil":
+                return 30;
+            case "medio":
+                return 40;
+            case "dificil":
+                return 50;
+            default:
+                return 30; // Por defecto, nivel fácil
         }
+    }
 
-        // Mezclar las posiciones para aleatorizar las celdas a vaciar
-        Collections.shuffle(posiciones);
+    /**
+     * Determina cuántas celdas vaciar según la dificultad, en la misma proporción que en 9x9
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @param celdas Número total de celdas del tablero
+     * @return Número de celdas a vaciar
+     */
+    public static int celdasVaciasPara(String dificultad, int celdas) {
+        return Math.round(celdasVaciasPara(dificultad) * celdas / 81f);
+    }
 
-        // Vaciar celdas
-        int celdasVaciadas = 0;
-        for (int i = 0; i < posiciones.size() && celdasVaciadas < celdasVacias; i++) {
-            int pos = posiciones.get(i);
-            int fila = pos / TAMANIO;
-            int columna = pos % TAMANIO;
+    /**
+     * Genera un puzzle completo (tablero lleno y celdas vaciadas) según la dificultad
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @return Puzzle con solución única (0 en las celdas vacías)
+     */
+    public int[][] generarPuzzle(String dificultad) {
+        return generar(dificultad).aMatriz();
+    }
 
-            int valorOriginal = tablero[fila][columna];
-            tablero[fila][columna] = 0; // Vaciar la celda
+    /**
+     * Genera un puzzle según la dificultad sobre un tablero plano
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @return Puzzle con solución única (0 en las celdas vacías)
+     */
+    public Tablero generar(String dificultad) {
+        return generar(dificultad, null);
+    }
 
-            // Verificar si el tablero sigue teniendo una única solución
-            if (tieneUnicaSolucion(copiarTablero(tablero))) {
-                celdasVaciadas++;
-            } else {
-                // Si no tiene única solución, restaurar el valor
-                tablero[fila][columna] = valorOriginal;
-            }
+    /**
+     * Genera un puzzle según la dificultad conservando su solución
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @param solucion Tablero del mismo tamaño donde copiar la solución, o null si no hace falta
+     * @return Puzzle con solución única (0 en las celdas vacías)
+     */
+    public Tablero generar(String dificultad, Tablero solucion) {
+        Tablero tablero = generarSolucion();
+        if (solucion != null) {
+            solucion.copiarDe(tablero);
         }
+        vaciarCeldas(tablero, celdasVaciasPara(dificultad, geometria.celdas));
+        return tablero;
     }
 
     /**
-     * Copia un tablero de Sudoku
-     * @param tablero Tablero a copiar
-     * @return Copia del tablero
+     * Genera un puzzle reproducible: la misma semilla y dificultad dan siempre el mismo puzzle
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @param semilla Semilla de 64 bits del puzzle
+     * @return Puzzle con solución única (0 en las celdas vacías)
      */
-    private int[][] copiarTablero(int[][] tablero) {
-        int[][] copia = new int[TAMANIO][TAMANIO];
-        for (int i = 0; i < TAMANIO; i++) {
-            System.arraycopy(tablero[i], 0, copia[i], 0, TAMANIO);
+    public int[][] generarPuzzle(String dificultad, long semilla) {
+        random = new SplittableRandom(semilla);
+        resolutor.setRandom(random);
+        return generarPuzzle(dificultad);
+    }
+
+    /**
+     * Genera un lote de puzzles 9x9 en paralelo usando el pool común de ForkJoin
+     * @param cantidad Número de puzzles a generar
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @return Lista con los puzzles generados
+     */
+    public static List<int[][]> generarLote(int cantidad, String dificultad) {
+        return generarFlujo(cantidad, dificultad).collect(Collectors.toList());
+    }
+
+    /**
+     * Genera un lote de puzzles 9x9 en paralelo conservando la solución de cada uno,
+     * para quien la necesite sin tener que volver a resolverlos
+     * @param cantidad Número de puzzles a generar
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @return Lista de pares {puzzle, solución}
+     */
+    public static List<Tablero[]> generarLoteConSoluciones(int cantidad, String dificultad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad de puzzles no puede ser negativa: " + cantidad);
         }
-        return copia;
+        return IntStream.range(0, cantidad)
+                .parallel()
+                .mapToObj(i -> {
+                    Tablero solucion = new Tablero();
+                    Tablero puzzle = GENERADOR_POR_HILO.get().generar(dificultad, solucion);
+                    return new Tablero[] {puzzle, solucion};
+                })
+                .collect(Collectors.toList());
     }
 
     /**
-     * Verifica si un tablero tiene una única solución
-     * @param tablero Tablero a verificar
-     * @return true si tiene una única solución
+     * Genera un lote de puzzles en paralelo dentro de un pool concreto
+     * @param cantidad Número de puzzles a generar
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @param pool Pool de hilos donde repartir el trabajo
+     * @return Lista con los puzzles generados
      */
-    private boolean tieneUnicaSolucion(int[][] tablero) {
-        // Para tableros simples, podemos simplificar y solo verificar si tiene solución
-        // Una implementación completa debería contar el número de soluciones
-        return resolverTablero(tablero);
+    public static List<int[][]> generarLote(int cantidad, String dificultad, ForkJoinPool pool) {
+        return pool.submit(() -> generarLote(cantidad, dificultad)).join();
     }
 
     /**
-     * Resuelve un tablero de Sudoku utilizando backtracking
-     * @param tablero Tablero a resolver
-     * @return true si se pudo resolver
+     * Genera en paralelo un lote reproducible: la misma semilla da siempre los mismos puzzles
+     * en el mismo orden, sin importar cuántos hilos participen
+     * @param cantidad Número de puzzles a generar
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @param semilla Semilla de 64 bits del lote
+     * @return Lista con los puzzles generados
      */
-    private boolean resolverTablero(int[][] tablero) {
-        for (int fila = 0; fila < TAMANIO; fila++) {
-            for (int columna = 0; columna < TAMANIO; columna++) {
-                // Si la celda está vacía
-                if (tablero[fila][columna] == 0) {
-                    // Probar con valores del 1 al 9
-                    List<Integer> valores = generarListaNumeros();
-                    for (int valor : valores) {
-                        if (esMovimientoValido(tablero, fila, columna, valor)) {
-                            // Colocar el valor
-                            tablero[fila][columna] = valor;
-
-                            // Llamada recursiva
-                            if (resolverTablero(tablero)) {
-                                return true;
-                            }
-
-                            // Si no lleva a una solución, deshacer
-                            tablero[fila][columna] = 0;
-                        }
-                    }
-                    // Si ningún valor funciona, retroceder
-                    return false;
-                }
-            }
+    public static List<int[][]> generarLote(int cantidad, String dificultad, long semilla) {
+        return generarFlujo(cantidad, dificultad, semilla).collect(Collectors.toList());
+    }
+
+    /**
+     * Genera un lote reproducible derivando todos los puzzles de un único puzzle semilla:
+     * solo la semilla paga la generación completa y el resto se obtiene con
+     * transformaciones de simetría (ver {@link TransformadorSudoku})
+     * @param cantidad Número de puzzles a generar
+     * @param dificultad Nivel de dificultad del puzzle semilla ("facil", "medio", "dificil")
+     * @param semilla Semilla de 64 bits del lote
+     * @return Lista con los puzzles derivados
+     */
+    public static List<int[][]> generarLoteDerivado(int cantidad, String dificultad, long semilla) {
+        TransformadorSudoku transformador = new TransformadorSudoku(new GeneradorSudoku(semilla).generar(dificultad));
+        return transformador.derivarFlujo(cantidad, semilla).collect(Collectors.toList());
+    }
+
+    /**
+     * Devuelve un flujo paralelo y reproducible de puzzles.
+     * La semilla del lote se divide de antemano en una semilla por puzzle, así que el
+     * resultado no depende de qué hilo genere cada puzzle.
+     * @param cantidad Número de puzzles a generar
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @param semilla Semilla de 64 bits del lote
+     * @return Flujo paralelo y ordenado de puzzles
+     */
+    public static Stream<int[][]> generarFlujo(int cantidad, String dificultad, long semilla) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad de puzzles no puede ser negativa: " + cantidad);
         }
-        // Si llegamos aquí, el tablero está completo
-        return true;
+        long[] semillas = new SplittableRandom(semilla).longs(cantidad).toArray();
+        return IntStream.range(0, cantidad)
+                .parallel()
+                .mapToObj(i -> GENERADOR_POR_HILO.get().generarPuzzle(dificultad, semillas[i]));
     }
 
     /**
-     * Genera una lista de números del 1 al 9 en orden aleatorio
-     * @return Lista de números del 1 al 9 mezclados
+     * Devuelve un flujo paralelo que genera puzzles a medida que se consumen.
+     * Cada hilo de trabajo usa su propio generador, sin compartir estado entre hilos.
+     * @param cantidad Número de puzzles a generar
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @return Flujo paralelo de puzzles
      */
-    private List<Integer> generarListaNumeros() {
-        List<Integer> numeros = new ArrayList<>();
-        for (int i = 1; i <= TAMANIO; i++) {
-            numeros.add(i);
+    public static Stream<int[][]> generarFlujo(int cantidad, String dificultad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad de puzzles no puede ser negativa: " + cantidad);
         }
-        Collections.shuffle(numeros, random);
-        return numeros;
+        return IntStream.range(0, cantidad)
+                .parallel()
+                .mapToObj(i -> GENERADOR_POR_HILO.get().generarPuzzle(dificultad));
     }
 
     /**
-     * Verifica si un movimiento es válido según las reglas del Sudoku
-     * @param tablero Tablero actual
-     * @param fila Fila donde se desea colocar el número
-     * @param columna Columna donde se desea colocar el número
-     * @param valor Valor a colocar
-     * @return true si el movimiento es válido
+     * Genera un tablero de Sudoku completo y válido
+     * @return Matriz cuadrada con un Sudoku válido completo
      */
-    private boolean esMovimientoValido(int[][] tablero, int fila, int columna, int valor) {
-        // Verificar fila
-        for (int c = 0; c < TAMANIO; c++) {
-            if (tablero[fila][c] == valor) {
-                return false;
+    public int[][] generarTableroCompleto() {
+        return generarSolucion().aMatriz();
+    }
+
+    /**
+     * Genera un tablero plano completo y válido
+     * @return Tablero completo
+     */
+    public Tablero generarSolucion() {
+        Tablero tablero = new Tablero(geometria);
+
+        // Rellenar el tablero utilizando backtracking con valores en orden aleatorio.
+        // En tableros grandes la búsqueda tiene un presupuesto y se reintenta si lo agota
+        boolean grande = geometria.subcuadricula > Sudoku.SUBCUADRICULA;
+        resolutor.setLimiteNodos(grande ? (long) geometria.celdas * NODOS_POR_CELDA : Long.MAX_VALUE);
+        for (int intento = 0; intento < (grande ? INTENTOS_RELLENO : 1); intento++) {
+            resolutor.cargar(tablero);
+            if (resolutor.resolver()) {
+                resolutor.copiarEn(tablero);
+                return tablero;
             }
         }
+        rellenarConPatron(tablero);
+        return tablero;
+    }
 
-        // Verificar columna
-        for (int f = 0; f < TAMANIO; f++) {
-            if (tablero[f][columna] == valor) {
-                return false;
+    /**
+     * Rellena un tablero con un patrón válido y lo baraja con transformaciones que
+     * conservan la validez: valores, filas dentro de cada banda, columnas dentro de
+     * cada pila, bandas y pilas
+     * @param tablero Tablero a rellenar
+     */
+    private void rellenarConPatron(Tablero tablero) {
+        int b = geometria.subcuadricula;
+        int n = geometria.tamanio;
+        int[] valores = TransformadorSudoku.permutacion(random, n);
+        int[] filas = TransformadorSudoku.permutacionPorBloques(random, geometria);
+        int[] columnas = TransformadorSudoku.permutacionPorBloques(random, geometria);
+        for (int f = 0; f < n; f++) {
+            for (int c = 0; c < n; c++) {
+                int fila = filas[f];
+                int columna = columnas[c];
+                tablero.set(f, c, valores[(b * (fila % b) + fila / b + columna) % n] + 1);
             }
         }
+    }
+
+    /**
+     * Indica a quién avisar del avance del vaciado de celdas
+     * @param progreso Destino del avance, o null para no avisar a nadie
+     */
+    public void setProgreso(ProgresoGeneracion progreso) {
+        this.progreso = progreso;
+    }
+
+    /**
+     * Vacia celdas en un tablero completo para crear un puzzle
+     * @param tablero Tablero completo
+     * @param celdasVacias Número de celdas a vaciar
+     */
+    public void vaciarCeldas(int[][] tablero, int celdasVacias) {
+        Tablero plano = Tablero.desdeMatriz(tablero);
+        vaciarCeldas(plano, celdasVacias);
+        plano.copiarEn(tablero);
+    }
+
+    /**
+     * Vacia celdas en un tablero plano completo para crear un puzzle.
+     * El estado del resolutor se conserva entre celdas: vaciar o restaurar una celda
+     * solo actualiza sus máscaras, y la solución original guía cada comprobación.
+     * Si el hilo se interrumpe, se detiene entre dos celdas
+     * @param tablero Tablero completo
+     * @param celdasVacias Número de celdas a vaciar
+     * @throws CancellationException si el hilo se interrumpió
+     */
+    public void vaciarCeldas(Tablero tablero, int celdasVacias) {
+        // Mezclar las posiciones para aleatorizar las celdas a vaciar (Fisher-Yates)
+        for (int i = 0; i < posiciones.length; i++) {
+            posiciones[i] = i;
+        }
+        for (int i = posiciones.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temporal = posiciones[i];
+            posiciones[i] = posiciones[j];
+            posiciones[j] = temporal;
+        }
 
-        // Verificar subcuadrícula 3x3
-        int inicioFila = (fila / SUBCUADRICULA) * SUBCUADRICULA;
-        int inicioColumna = (columna / SUBCUADRICULA) * SUBCUADRICULA;
+        // El tablero completo es la única solución del puzzle inicial
+        resolutor.cargar(tablero);
+        resolutor.recordarSolucion();
+        // En tableros grandes cada comprobación tiene un presupuesto; si lo agota, la celda no se vacía
+        resolutor.setLimiteNodos(geometria.subcuadricula <= Sudoku.SUBCUADRICULA
+                ? Long.MAX_VALUE : (long) geometria.celdas * NODOS_POR_CELDA);
 
-        for (int i = 0; i < SUBCUADRICULA; i++) {
-            for (int j = 0; j < SUBCUADRICULA; j++) {
-                if (tablero[inicioFila + i][inicioColumna + j] == valor) {
-                    return false;
-                }
+        // Vaciar celdas
+        int celdasVaciadas = 0;
+        for (int i = 0; i < posiciones.length && celdasVaciadas < celdasVacias; i++) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Generación interrumpida");
+            }
+            int pos = posiciones[i];
+            int valorOriginal = tablero.get(pos);
+            resolutor.vaciarCelda(pos);
+
+            // El puzzle sigue siendo único si ningún otro valor en la celda lleva a una solución
+            comprobacionesUnicidad++;
+            if (!resolutor.tieneAlternativa(pos, valorOriginal)) {
+                tablero.set(pos, 0);
+                celdasVaciadas++;
+            } else {
+                // Si no tiene única solución, restaurar el valor
+                resolutor.restaurarCelda(pos, valorOriginal);
+            }
+            if (progreso != null) {
+                progreso.avance(celdasVaciadas, celdasVacias, i + 1);
             }
         }
+    }
+
+    /**
+     * Verifica si un tablero tiene una única solución
+     * @param tablero Tablero a verificar
+     * @return true si tiene una única solución
+     */
+    public boolean tieneUnicaSolucion(int[][] tablero) {
+        // Contar soluciones deteniéndose en cuanto aparezca una segunda
+        comprobacionesUnicidad++;
+        resolutor.setLimiteNodos(Long.MAX_VALUE);
+        return resolutorValidacion.contarSoluciones(tablero, 2) == 1;
+    }
 
-        return true;
+    /**
+     * Devuelve cuántas comprobaciones de unicidad ha realizado este generador
+     * @return Número de comprobaciones de unicidad
+     */
+    public long getComprobacionesUnicidad() {
+        return comprobacionesUnicidad;
+    }
+
+    /**
+     * Resuelve un tablero de Sudoku utilizando el motor de validación elegido
+     * @param tablero Tablero a resolver; si tiene solución se rellena con ella
+     * @return true si se pudo resolver
+     */
+    public boolean resolverTablero(int[][] tablero) {
+        resolutor.setLimiteNodos(Long.MAX_VALUE);
+        return resolutorValidacion.resolver(tablero);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,179 @@
+/**
+ * Datos que dependen del tamaño del tablero: dimensiones, la fila, columna y
+ * subcuadrícula de cada celda y sus celdas vecinas (las que comparten fila,
+ * columna o subcuadrícula). Las celdas se numeran fila * tamaño + columna.
+ * Se admiten subcuadrículas de 2 a 5 (tableros de 4x4 a 25x25).
+ */
+public final class GeometriaSudoku {
+    public static final int SUBCUADRICULA_MINIMA = 2;
+    public static final int SUBCUADRICULA_MAXIMA = 5;
+
+    // Una instancia compartida por cada tamaño admitido
+    private static final GeometriaSudoku[] INSTANCIAS = new GeometriaSudoku[SUBCUADRICULA_MAXIMA + 1];
+
+    static {
+        for (int b = SUBCUADRICULA_MINIMA; b <= SUBCUADRICULA_MAXIMA; b++) {
+            INSTANCIAS[b] = new GeometriaSudoku(b);
+        }
+    }
+
+    // Tamaño de cada subcuadrícula (3 en un Sudoku clásico)
+    public final int subcuadricula;
+    // Tamaño del tablero (9 en un Sudoku clásico)
+    public final int tamanio;
+    // Número total de celdas
+    public final int celdas;
+    // Máscara con los bits 1..tamanio encendidos: todos los valores posibles
+    public final int todos;
+    // Número de vecinas de cada celda (20 en un Sudoku clásico)
+    public final int numeroPares;
+    // Número de unidades: filas, columnas y subcuadrículas (27 en un Sudoku clásico)
+    public final int numeroUnidades;
+
+    // Fila, columna y subcuadrícula de cada celda
+    private final int[] fila;
+    private final int[] columna;
+    private final int[] caja;
+    // Vecinas de cada celda, numeroPares por celda: primero las de su fila, luego las de
+    // su columna y por último las de su subcuadrícula que no están en ninguna de las dos
+    private final int[] pares;
+    // Celdas de cada unidad, tamanio por unidad: primero las filas, luego las columnas y
+    // por último las subcuadrículas
+    private final int[] unidades;
+
+    /**
+     * Constructor privado: usar {@link #de(int)}
+     * @param subcuadricula Tamaño de la subcuadrícula
+     */
+    private GeometriaSudoku(int subcuadricula) {
+        this.subcuadricula = subcuadricula;
+        this.tamanio = subcuadricula * subcuadricula;
+        this.celdas = tamanio * tamanio;
+        this.todos = ((1 << tamanio) - 1) << 1;
+
+        fila = new int[celdas];
+        columna = new int[celdas];
+        caja = new int[celdas];
+        for (int celda = 0; celda < celdas; celda++) {
+            fila[celda] = celda / tamanio;
+            columna[celda] = celda % tamanio;
+            caja[celda] = (fila[celda] / subcuadricula) * subcuadricula + columna[celda] / subcuadricula;
+        }
+
+        numeroPares = 3 * tamanio - 2 * subcuadricula - 1;
+        pares = new int[celdas * numeroPares];
+        for (int celda = 0; celda < celdas; celda++) {
+            int k = celda * numeroPares;
+            for (int otra = 0; otra < celdas; otra++) {
+                if (otra != celda && fila[otra] == fila[celda]) {
+                    pares[k++] = otra;
+                }
+            }
+            for (int otra = 0; otra < celdas; otra++) {
+                if (otra != celda && columna[otra] == columna[celda]) {
+                    pares[k++] = otra;
+                }
+            }
+            for (int otra = 0; otra < celdas; otra++) {
+                if (caja[otra] == caja[celda] && fila[otra] != fila[celda] && columna[otra] != columna[celda]) {
+                    pares[k++] = otra;
+                }
+            }
+        }
+
+        numeroUnidades = 3 * tamanio;
+        unidades = new int[numeroUnidades * tamanio];
+        int[] ocupadas = new int[numeroUnidades];
+        for (int celda = 0; celda < celdas; celda++) {
+            int[] delaCelda = {fila[celda], tamanio + columna[celda], 2 * tamanio + caja[celda]};
+            for (int unidad : delaCelda) {
+                unidades[unidad * tamanio + ocupadas[unidad]++] = celda;
+            }
+        }
+    }
+
+    /**
+     * Devuelve la geometría para un tamaño de subcuadrícula
+     * @param subcuadricula Tamaño de la subcuadrícula (2 a 5)
+     * @return Geometría compartida para ese tamaño
+     */
+    public static GeometriaSudoku de(int subcuadricula) {
+        if (subcuadricula < SUBCUADRICULA_MINIMA || subcuadricula > SUBCUADRICULA_MAXIMA) {
+            throw new IllegalArgumentException("El tamaño de subcuadrícula debe estar entre "
+                    + SUBCUADRICULA_MINIMA + " y " + SUBCUADRICULA_MAXIMA + ": " + subcuadricula);
+        }
+        return INSTANCIAS[subcuadricula];
+    }
+
+    /**
+     * Devuelve la geometría que corresponde a un tablero
+     * @param tablero Tablero cuadrado
+     * @return Geometría para el tamaño del tablero
+     */
+    public static GeometriaSudoku deTablero(int[][] tablero) {
+        int subcuadricula = (int) Math.round(Math.sqrt(tablero.length));
+        if (subcuadricula * subcuadricula != tablero.length) {
+            throw new IllegalArgumentException("El tamaño del tablero no es un cuadrado perfecto: " + tablero.length);
+        }
+        return de(subcuadricula);
+    }
+
+    /**
+     * Devuelve la fila de una celda
+     * @param celda Índice de la celda
+     * @return Fila de la celda
+     */
+    public int fila(int celda) {
+        return fila[celda];
+    }
+
+    /**
+     * Devuelve la columna de una celda
+     * @param celda Índice de la celda
+     * @return Columna de la celda
+     */
+    public int columna(int celda) {
+        return columna[celda];
+    }
+
+    /**
+     * Devuelve la subcuadrícula de una celda
+     * @param celda Índice de la celda
+     * @return Subcuadrícula de la celda
+     */
+    public int caja(int celda) {
+        return caja[celda];
+    }
+
+    /**
+     * Devuelve una vecina de una celda. Las primeras tamaño - 1 comparten fila, las
+     * siguientes tamaño - 1 comparten columna y el resto solo comparten subcuadrícula
+     * @param celda Índice de la celda
+     * @param k Índice de la vecina (0 a numeroPares - 1)
+     * @return Índice de la celda vecina
+     */
+    public int par(int celda, int k) {
+        return pares[celda * numeroPares + k];
+    }
+
+    /**
+     * Devuelve una celda de una unidad. Las unidades 0 a tamaño - 1 son las filas, las
+     * siguientes tamaño son las columnas y las últimas tamaño son las subcuadrículas
+     * @param unidad Índice de la unidad (0 a numeroUnidades - 1)
+     * @param i Posición de la celda dentro de la unidad (0 a tamaño - 1)
+     * @return Índice de la celda
+     */
+    public int celdaDeUnidad(int unidad, int i) {
+        return unidades[unidad * tamanio + i];
+    }
+
+    /**
+     * Devuelve el índice plano de una posición
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     * @return Índice de la celda
+     */
+    public int celda(int fila, int columna) {
+        return fila * tamanio + columna;
+    }
+}
@@ -0,0 +1,197 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Índice de puzzles ya vistos, sin distinguir entre puzzles equivalentes por simetría.
+ * Guarda una huella de 128 bits de la forma canónica de cada puzzle en una tabla hash
+ * de direccionamiento abierto sobre un único arreglo de long (sin objetos por entrada),
+ * así que agregar y consultar cuestan O(1) más la canonización. Con cien millones de
+ * puzzles la probabilidad de que dos huellas coincidan sigue siendo despreciable (≈ 10^-22).
+ * El índice no es seguro entre hilos.
+ */
+public class IndiceSudoku {
+    // Un canonizador por hilo de trabajo para calcular claves en paralelo
+    private static final ThreadLocal<CanonizadorSudoku> CANONIZADOR_POR_HILO =
+            ThreadLocal.withInitial(CanonizadorSudoku::new);
+
+    private final CanonizadorSudoku canonizador;
+    // Dos long por posición; la segunda mitad de una huella nunca es 0, así que 0 marca una posición libre
+    private long[] huellas;
+    private int mascara;
+    private int cantidad;
+
+    /**
+     * Constructor que crea un índice vacío para puzzles 9x9
+     */
+    public IndiceSudoku() {
+        this(Sudoku.SUBCUADRICULA, 1024);
+    }
+
+    /**
+     * Constructor que crea un índice vacío
+     * @param subcuadricula Tamaño de la subcuadrícula de los puzzles (2 o 3)
+     * @param capacidadInicial Número de puzzles previsto; la tabla crece si se supera
+     */
+    public IndiceSudoku(int subcuadricula, int capacidadInicial) {
+        canonizador = new CanonizadorSudoku(subcuadricula);
+        int posiciones = Integer.highestOneBit(Math.max(16, capacidadInicial * 2 - 1)) << 1;
+        huellas = new long[posiciones * 2];
+        mascara = posiciones - 1;
+    }
+
+    /**
+     * Agrega un puzzle al índice
+     * @param puzzle Puzzle a agregar
+     * @return true si ni el puzzle ni ninguno equivalente estaba ya en el índice
+     */
+    public boolean agregar(Tablero puzzle) {
+        return agregarClave(canonizador.clave(puzzle));
+    }
+
+    /**
+     * Agrega un puzzle al índice
+     * @param puzzle Puzzle a agregar (0 para celdas vacías)
+     * @return true si ni el puzzle ni ninguno equivalente estaba ya en el índice
+     */
+    public boolean agregar(int[][] puzzle) {
+        return agregar(Tablero.desdeMatriz(puzzle));
+    }
+
+    /**
+     * Comprueba si el puzzle, o alguno equivalente, ya está en el índice
+     * @param puzzle Puzzle a buscar
+     * @return true si ya se había agregado
+     */
+    public boolean contiene(Tablero puzzle) {
+        return contieneClave(canonizador.clave(puzzle));
+    }
+
+    /**
+     * Comprueba si el puzzle, o alguno equivalente, ya está en el índice
+     * @param puzzle Puzzle a buscar (0 para celdas vacías)
+     * @return true si ya se había agregado
+     */
+    public boolean contiene(int[][] puzzle) {
+        return contiene(Tablero.desdeMatriz(puzzle));
+    }
+
+    /**
+     * Agrega una clave canónica ya calculada (ver {@link CanonizadorSudoku#clave(Tablero)})
+     * @param clave Clave canónica
+     * @return true si la clave no estaba en el índice
+     */
+    public boolean agregarClave(long[] clave) {
+        long alta = huella(clave, 0x9E3779B97F4A7C15L);
+        long baja = huella(clave, 0xC2B2AE3D27D4EB4FL) | 1;
+        int posicion = buscar(alta, baja);
+        if (huellas[2 * posicion + 1] != 0) {
+            return false;
+        }
+        huellas[2 * posicion] = alta;
+        huellas[2 * posicion + 1] = baja;
+        if (++cantidad * 2 > mascara + 1) {
+            crecer();
+        }
+        return true;
+    }
+
+    /**
+     * Comprueba si una clave canónica está en el índice
+     * @param clave Clave canónica
+     * @return true si la clave ya se había agregado
+     */
+    public boolean contieneClave(long[] clave) {
+        long alta = huella(clave, 0x9E3779B97F4A7C15L);
+        long baja = huella(clave, 0xC2B2AE3D27D4EB4FL) | 1;
+        return huellas[2 * buscar(alta, baja) + 1] != 0;
+    }
+
+    /**
+     * Devuelve cuántos puzzles distintos (salvo simetría) contiene el índice
+     * @return Número de puzzles distintos
+     */
+    public int tamanio() {
+        return cantidad;
+    }
+
+    /**
+     * Elimina de una lista de puzzles 9x9 los repetidos y los equivalentes por simetría,
+     * conservando la primera aparición. Las formas canónicas se calculan en paralelo y
+     * el índice se recorre una sola vez.
+     * @param puzzles Puzzles a filtrar
+     * @return Puzzles sin duplicados, en el orden original
+     */
+    public static List<int[][]> eliminarDuplicados(List<int[][]> puzzles) {
+        List<long[]> claves = puzzles.parallelStream()
+                .map(puzzle -> CANONIZADOR_POR_HILO.get().clave(Tablero.desdeMatriz(puzzle)))
+                .collect(Collectors.toList());
+        IndiceSudoku indice = new IndiceSudoku(Sudoku.SUBCUADRICULA, puzzles.size());
+        List<int[][]> distintos = new ArrayList<>();
+        for (int i = 0; i < puzzles.size(); i++) {
+            if (indice.agregarClave(claves.get(i))) {
+                distintos.add(puzzles.get(i));
+            }
+        }
+        return distintos;
+    }
+
+    /**
+     * Busca la posición de una huella o la posición libre donde iría (sondeo lineal)
+     * @param alta Primera mitad de la huella
+     * @param baja Segunda mitad de la huella
+     * @return Posición de la huella o posición libre
+     */
+    private int buscar(long alta, long baja) {
+        int posicion = (int) alta & mascara;
+        while (huellas[2 * posicion + 1] != 0
+                && (huellas[2 * posicion] != alta || huellas[2 * posicion + 1] != baja)) {
+            posicion = (posicion + 1) & mascara;
+        }
+        return posicion;
+    }
+
+    /**
+     * Duplica la tabla y recoloca todas las huellas
+     */
+    private void crecer() {
+        long[] anteriores = huellas;
+        huellas = new long[anteriores.length * 2];
+        mascara = (mascara << 1) | 1;
+        for (int i = 0; i < anteriores.length; i += 2) {
+            if (anteriores[i + 1] != 0) {
+                int posicion = buscar(anteriores[i], anteriores[i + 1]);
+                huellas[2 * posicion] = anteriores[i];
+                huellas[2 * posicion + 1] = anteriores[i + 1];
+            }
+        }
+    }
+
+    /**
+     * Calcula una huella de 64 bits de una clave
+     * @param clave Clave canónica
+     * @param semilla Semilla que distingue las dos mitades de la huella
+     * @return Huella de la clave
+     */
+    private static long huella(long[] clave, long semilla) {
+        long h = semilla;
+        for (long parte : clave) {
+            h = Long.rotateLeft(h ^ mezclar(parte + semilla), 31) * 0x9E3779B97F4A7C15L;
+        }
+        return mezclar(h);
+    }
+
+    /**
+     * Mezcla los bits de un long (finalizador de MurmurHash3)
+     * @param x Valor a mezclar
+     * @return Valor mezclado
+     */
+    private static long mezclar(long x) {
+        x ^= x >>> 33;
+        x *= 0xFF51AFD7ED558CCDL;
+        x ^= x >>> 33;
+        x *= 0xC4CEB9FE1A85EC53L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
@@ -6,12 +6,29 @@ import java.util.Scanner;
 public class JuegoSudoku {
     private Sudoku sudoku;
     private Scanner scanner;
+    // Reserva de puzzles 9x9 ya generados
+    private final PoolSudoku pool;
+    // Indica si el tablero cambió desde la última vez que se mostró
+    private boolean hayCambios = true;
+    // Se entera de los cambios de la partida para no volver a imprimir un tablero igual
+    private final ObservadorSudoku observador = new ObservadorSudoku() {
+        @Override
+        public void celdaCambiada(int fila, int columna, int anterior, int nuevo) {
+            hayCambios = true;
+        }
+
+        @Override
+        public void tableroCambiado() {
+            hayCambios = true;
+        }
+    };
 
     /**
      * Constructor que inicializa el juego
      */
     public JuegoSudoku() {
-        sudoku = new Sudoku();
+        pool = new PoolSudoku();
+        sudoku = new Sudoku(pool);
         scanner = new Scanner(System.in);
     }
 
@@ -21,7 +38,8 @@ public class JuegoSudoku {
     public void iniciar() {
         System.out.println("¡Bienvenido al juego de Sudoku!");
 
-        // Seleccionar dificultad
+        // Seleccionar tamaño y dificultad
+        nuevaPartida(seleccionarTamanio());
         String dificultad = seleccionarDificultad();
 
         // Generar tablero según dificultad
@@ -30,15 +48,21 @@ public class JuegoSudoku {
         // Bucle principal del juego
         boolean jugando = true;
         while (jugando) {
-            // Mostrar el tablero actual
-            System.out.println("\nTablero actual:");
-            sudoku.mostrarTablero();
+            // Mostrar el tablero actual solo si cambió (no tras un error, una pista o una verificación)
+            if (hayCambios) {
+                hayCambios = false;
+                System.out.println("\nTablero actual:");
+                sudoku.mostrarTablero();
+            }
 
             // Mostrar menú de opciones
             System.out.println("\nOpciones:");
             System.out.println("1. Colocar un número");
-            System.out.println("2. Verificar si está resuelto");
-            System.out.println("3. Salir");
+            System.out.println("2. Deshacer");
+            System.out.println("3. Rehacer");
+            System.out.println("4. Pedir una pista");
+            System.out.println("5. Verificar si está resuelto");
+            System.out.println("6. Salir");
             System.out.print("Seleccione una opción: ");
 
             int opcion = leerEntero();
@@ -48,9 +72,22 @@ public class JuegoSudoku {
                     colocarNumero();
                     break;
                 case 2:
-                    verificarSolucion();
+                    if (!sudoku.deshacer()) {
+                        System.out.println("No hay movimientos que deshacer.");
+                    }
                     break;
                 case 3:
+                    if (!sudoku.rehacer()) {
+                        System.out.println("No hay movimientos que rehacer.");
+                    }
+                    break;
+                case 4:
+                    mostrarPista();
+                    break;
+                case 5:
+                    verificarSolucion();
+                    break;
+                case 6:
                     jugando = false;
                     System.out.println("¡Gracias por jugar!");
                     break;
@@ -67,6 +104,7 @@ public class JuegoSudoku {
                 String respuesta = scanner.next().toLowerCase();
                 if (respuesta.equals("s")) {
                     // Reiniciar el juego
+                    nuevaPartida(seleccionarTamanio());
                     dificultad = seleccionarDificultad();
                     sudoku.generarTablero(dificultad);
                 } else {
@@ -79,6 +117,47 @@ public class JuegoSudoku {
         scanner.close();
     }
 
+    /**
+     * Crea la partida de un tamaño y empieza a observar sus cambios
+     * @param subcuadricula Tamaño de la subcuadrícula
+     */
+    private void nuevaPartida(int subcuadricula) {
+        sudoku.quitarObservador(observador);
+        // La reserva solo tiene puzzles 9x9: los demás tamaños se generan al momento
+        sudoku = new Sudoku(subcuadricula, subcuadricula == pool.getSubcuadricula() ? pool : null);
+        sudoku.agregarObservador(observador);
+        hayCambios = true;
+    }
+
+    /**
+     * Permite al usuario seleccionar el tamaño del tablero
+     * @return Tamaño de la subcuadrícula seleccionado
+     */
+    private int seleccionarTamanio() {
+        System.out.println("\nSeleccione el tamaño del tablero:");
+        System.out.println("1. 9x9");
+        System.out.println("2. 4x4");
+        System.out.println("3. 16x16");
+        System.out.println("4. 25x25");
+        System.out.print("Opción: ");
+
+        int opcion = leerEntero();
+
+        switch (opcion) {
+            case 1:
+                return 3;
+            case 2:
+                return 2;
+            case 3:
+                return 4;
+            case 4:
+                return 5;
+            default:
+                System.out.println("Opción no válida. Se seleccionará el tablero 9x9 por defecto.");
+                return 3;
+        }
+    }
+
     /**
      * Permite al usuario seleccionar una dificultad
      * @return Dificultad seleccionada
@@ -111,20 +190,35 @@ public class JuegoSudoku {
     private void colocarNumero() {
         System.out.println("\nIntroduzca la posición y el valor:");
 
-        System.out.print("Fila (0-8): ");
+        int tamanio = sudoku.getTamanio();
+        System.out.print("Fila (0-" + (tamanio - 1) + "): ");
         int fila = leerEntero();
 
-        System.out.print("Columna (0-8): ");
+        System.out.print("Columna (0-" + (tamanio - 1) + "): ");
         int columna = leerEntero();
 
-        System.out.print("Valor (1-9): ");
+        System.out.print("Valor (1-" + tamanio + "): ");
         int valor = leerEntero();
 
-        // Intentar colocar el número
-        boolean exito = sudoku.colocarNumero(fila, columna, valor);
+        // Intentar colocar el número; el mensaje de error solo se construye si hay que mostrarlo
+        ErrorMovimiento error = sudoku.colocar(fila, columna, valor);
 
-        if (exito) {
+        if (error == null) {
             System.out.println("Número colocado correctamente.");
+        } else {
+            System.out.println("Error: " + error.mensaje(fila, columna, valor, tamanio));
+        }
+    }
+
+    /**
+     * Muestra el siguiente movimiento que se puede deducir, sin colocarlo
+     */
+    private void mostrarPista() {
+        Pista pista = sudoku.pista();
+        if (pista == null) {
+            System.out.println("No hay ninguna pista disponible.");
+        } else {
+            System.out.println("Pista: " + pista);
         }
     }
 
@@ -136,6 +230,11 @@ public class JuegoSudoku {
             System.out.println("¡Felicidades! El Sudoku está resuelto correctamente.");
         } else {
             System.out.println("El Sudoku aún no está resuelto completamente o contiene errores.");
+            // La solución ya se conoce: contar los errores es una consulta directa
+            int incorrectas = sudoku.verificarTablero();
+            if (incorrectas > 0) {
+                System.out.println("Hay " + incorrectas + " valor(es) que no coinciden con la solución.");
+            }
         }
     }
 
@@ -1,8 +1,15 @@
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Scanner;
 
 /**
  * Clase principal que sirve como punto de entrada para la aplicación.
- * Permite elegir entre el modo consola y el modo gráfico de forma interactiva.
+ * Permite elegir entre el modo consola y el modo gráfico de forma interactiva, o
+ * resolver un archivo de puzzles sin interfaz con el modo "resolver".
  */
 public class Main {
 
@@ -19,6 +26,9 @@ public class Main {
             } else if (args[0].equalsIgnoreCase("grafico")) {
                 iniciarModoGrafico();
                 return;
+            } else if (args[0].equalsIgnoreCase("resolver")) {
+                iniciarModoResolver(args);
+                return;
             }
         }
 
@@ -56,6 +66,38 @@ public class Main {
         juego.iniciar();
     }
 
+    /**
+     * Resuelve un archivo de puzzles sin interfaz:
+     * resolver &lt;entrada&gt; [salida] [hilos]. Sin archivo de salida (o con "-") las
+     * soluciones se escriben en la salida estándar; el resumen siempre va a la salida de errores
+     * @param args Argumentos de línea de comandos
+     */
+    private static void iniciarModoResolver(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Uso: java Main resolver <entrada> [salida] [hilos]");
+            System.exit(2);
+        }
+        try {
+            int hilos = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            ResolutorMasivo resolutor = new ResolutorMasivo(hilos);
+            ResolutorMasivo.Resumen resumen;
+            if (args.length > 2 && !args[2].equals("-")) {
+                try (WritableByteChannel salida = FileChannel.open(Paths.get(args[2]), StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    resumen = resolutor.resolver(Paths.get(args[1]), salida);
+                }
+            } else {
+                WritableByteChannel salida = Channels.newChannel(System.out);
+                resumen = resolutor.resolver(Paths.get(args[1]), salida);
+                System.out.flush();
+            }
+            System.err.println(resumen);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
     /**
      * Inicia el juego en modo gráfico
      */
@@ -0,0 +1,128 @@
+/**
+ * Da pistas sobre una partida en curso. Los candidatos de cada celda vacía salen de las
+ * máscaras de ocupación que {@link Sudoku} mantiene en cada movimiento, así que los singles
+ * (la inmensa mayoría de las pistas) se encuentran sin copiar el tablero ni resolver nada.
+ * Solo cuando no hay ningún single se recurre a las técnicas de {@link CalificadorSudoku},
+ * que parte de la solución ya conocida del puzzle en lugar de volver a resolverlo.
+ * Un motor reutiliza sus arreglos entre llamadas y no es seguro entre hilos.
+ */
+public class MotorPistas {
+    private final GeometriaSudoku geometria;
+    private final int tamanio;
+    // Se crea la primera vez que no basta con un single
+    private CalificadorSudoku calificador;
+
+    /**
+     * Constructor que crea un motor de pistas para tableros 9x9
+     */
+    public MotorPistas() {
+        this(Sudoku.SUBCUADRICULA);
+    }
+
+    /**
+     * Constructor que crea un motor de pistas para otro tamaño de tablero
+     * @param subcuadricula Tamaño de la subcuadrícula (2 a 5)
+     */
+    public MotorPistas(int subcuadricula) {
+        geometria = GeometriaSudoku.de(subcuadricula);
+        tamanio = geometria.tamanio;
+    }
+
+    /**
+     * Busca la siguiente pista de una partida. Si el jugador puso algún valor que no es
+     * el de la solución, la pista es la corrección de ese valor
+     * @param sudoku Partida del mismo tamaño que el motor
+     * @return Pista, o null si el tablero está completo y es correcto o el puzzle no tiene solución
+     */
+    public Pista buscar(Sudoku sudoku) {
+        if (sudoku.getSubcuadricula() != geometria.subcuadricula) {
+            throw new IllegalArgumentException("El motor de pistas es para tableros de " + tamanio + "x" + tamanio);
+        }
+        int incorrectas = sudoku.verificarTablero();
+        if (incorrectas < 0) {
+            return null;
+        }
+        if (incorrectas > 0) {
+            return correccion(sudoku);
+        }
+        if (sudoku.getCeldasLlenas() == geometria.celdas) {
+            return null;
+        }
+
+        // Mismo orden que el calificador: primero el single oculto, que es el más sencillo
+        Pista pista = singleOculto(sudoku);
+        if (pista == null) {
+            pista = singleDesnudo(sudoku);
+        }
+        if (pista == null) {
+            if (calificador == null) {
+                calificador = new CalificadorSudoku(geometria.subcuadricula);
+            }
+            pista = calificador.siguientePista(sudoku.getTablero(), sudoku.getSolucion());
+        }
+        return pista;
+    }
+
+    /**
+     * Busca la primera celda con un valor distinto del de la solución
+     * @param sudoku Partida con al menos un valor incorrecto
+     * @return Pista que corrige el valor
+     */
+    private Pista correccion(Sudoku sudoku) {
+        for (int celda = 0; celda < geometria.celdas; celda++) {
+            int fila = geometria.fila(celda);
+            int columna = geometria.columna(celda);
+            int valor = sudoku.getValor(fila, columna);
+            if (valor != 0 && !sudoku.esValorCorrecto(fila, columna, valor)) {
+                return new Pista(fila, columna, sudoku.getSolucion().get(fila, columna), null, true);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Busca un valor que solo cabe en una celda de alguna unidad
+     * @param sudoku Partida sin valores incorrectos
+     * @return Pista, o null si no hay ningún single oculto
+     */
+    private Pista singleOculto(Sudoku sudoku) {
+        for (int unidad = 0; unidad < geometria.numeroUnidades; unidad++) {
+            int unaVez = 0;
+            int variasVeces = 0;
+            for (int i = 0; i < tamanio; i++) {
+                int c = sudoku.candidatos(geometria.celdaDeUnidad(unidad, i));
+                variasVeces |= unaVez & c;
+                unaVez |= c;
+            }
+            int unicos = unaVez & ~variasVeces;
+            if (unicos == 0) {
+                continue;
+            }
+            int bit = unicos & -unicos;
+            for (int i = 0; i < tamanio; i++) {
+                int celda = geometria.celdaDeUnidad(unidad, i);
+                if ((sudoku.candidatos(celda) & bit) != 0) {
+                    return new Pista(geometria.fila(celda), geometria.columna(celda),
+                            Integer.numberOfTrailingZeros(bit), TecnicaSudoku.SINGLE_OCULTO, false);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Busca una celda vacía con un único candidato
+     * @param sudoku Partida sin valores incorrectos
+     * @return Pista, o null si no hay ningún single desnudo
+     */
+    private Pista singleDesnudo(Sudoku sudoku) {
+        for (int celda = 0; celda < geometria.celdas; celda++) {
+            int c = sudoku.candidatos(celda);
+            if (c != 0 && (c & (c - 1)) == 0) {
+                return new Pista(geometria.fila(celda), geometria.columna(celda),
+                        Integer.numberOfTrailingZeros(c), TecnicaSudoku.SINGLE_DESNUDO, false);
+            }
+        }
+        return null;
+    }
+}
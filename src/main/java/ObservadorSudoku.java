@@ -0,0 +1,20 @@
+/**
+ * Recibe los cambios de una partida a medida que ocurren, para que una vista (la ventana,
+ * la consola o un espectador remoto) actualice solo lo que cambió en lugar de todo el tablero.
+ * Los avisos llegan en el mismo hilo que modifica la partida y no reservan memoria.
+ */
+public interface ObservadorSudoku {
+    /**
+     * Avisa de que cambió el valor de una celda (colocar, escribir, borrar, deshacer, rehacer...)
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     * @param anterior Valor que tenía (0 si estaba vacía)
+     * @param nuevo Valor que tiene ahora (0 si se vació)
+     */
+    void celdaCambiada(int fila, int columna, int anterior, int nuevo);
+
+    /**
+     * Avisa de que se cargó un tablero nuevo: hay que volver a leerlo entero
+     */
+    void tableroCambiado();
+}
@@ -0,0 +1,79 @@
+/**
+ * Siguiente movimiento que se le sugiere al jugador: el valor que se deduce en una celda
+ * y la técnica que lo justifica, o la corrección de un valor que no es el de la solución.
+ */
+public final class Pista {
+    private final int fila;
+    private final int columna;
+    private final int valor;
+    private final TecnicaSudoku tecnica;
+    private final boolean correccion;
+
+    /**
+     * Constructor que guarda una pista
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     * @param valor Valor que corresponde a la celda
+     * @param tecnica Técnica más difícil necesaria para deducirlo (null en una corrección)
+     * @param correccion true si la celda tiene un valor equivocado que hay que cambiar
+     */
+    Pista(int fila, int columna, int valor, TecnicaSudoku tecnica, boolean correccion) {
+        this.fila = fila;
+        this.columna = columna;
+        this.valor = valor;
+        this.tecnica = tecnica;
+        this.correccion = correccion;
+    }
+
+    /**
+     * Devuelve la fila de la celda
+     * @return Fila (0 a tamaño - 1)
+     */
+    public int getFila() {
+        return fila;
+    }
+
+    /**
+     * Devuelve la columna de la celda
+     * @return Columna (0 a tamaño - 1)
+     */
+    public int getColumna() {
+        return columna;
+    }
+
+    /**
+     * Devuelve el valor que corresponde a la celda
+     * @return Valor (1 a tamaño)
+     */
+    public int getValor() {
+        return valor;
+    }
+
+    /**
+     * Devuelve la técnica que justifica el valor
+     * @return Técnica más difícil necesaria, o null si la pista es una corrección
+     */
+    public TecnicaSudoku getTecnica() {
+        return tecnica;
+    }
+
+    /**
+     * Indica si la pista corrige un valor equivocado del jugador
+     * @return true si la celda tiene un valor que no es el de la solución
+     */
+    public boolean isCorreccion() {
+        return correccion;
+    }
+
+    /**
+     * Describe la pista para mostrarla al jugador
+     * @return Texto de la pista
+     */
+    @Override
+    public String toString() {
+        if (correccion) {
+            return "El valor de la fila " + fila + ", columna " + columna + " no es correcto: debería ser " + valor + ".";
+        }
+        return "En la fila " + fila + ", columna " + columna + " va un " + valor + " (" + tecnica.getNombre() + ").";
+    }
+}
@@ -0,0 +1,228 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reserva acotada de puzzles ya generados para cada dificultad.
+ * Unos hilos en segundo plano la mantienen llena: cuando una reserva baja del
+ * nivel mínimo se rellena hasta el máximo.
+ */
+public class PoolSudoku {
+    private static final String[] DIFICULTADES = {"facil", "medio", "dificil"};
+
+    // Tamaño de subcuadrícula de los puzzles de la reserva
+    private final int subcuadricula;
+
+    // Nivel bajo que dispara el relleno y nivel alto hasta el que se rellena
+    private final int minimo;
+    private final int maximo;
+
+    // Puzzles listos para cada dificultad, cada uno junto a su solución: {puzzle, solución}
+    private final List<ArrayBlockingQueue<Tablero[]>> reservas;
+    // Indica si ya hay una tarea rellenando cada reserva
+    private final AtomicBoolean[] rellenando;
+    private final ExecutorService trabajadores;
+    // Un generador por hilo de trabajo
+    private final ThreadLocal<GeneradorSudoku> generadores;
+
+    // Estadísticas de uso
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+
+    /**
+     * Constructor con valores por defecto: puzzles 9x9, entre 2 y 8 por dificultad y un hilo de relleno
+     */
+    public PoolSudoku() {
+        this(2, 8, 1);
+    }
+
+    /**
+     * Constructor que configura los niveles de una reserva de puzzles 9x9 y empieza a rellenarla
+     * @param minimo Cantidad por debajo de la cual se rellena una reserva
+     * @param maximo Capacidad de cada reserva
+     * @param hilos Número de hilos de relleno en segundo plano
+     */
+    public PoolSudoku(int minimo, int maximo, int hilos) {
+        this(Sudoku.SUBCUADRICULA, minimo, maximo, hilos);
+    }
+
+    /**
+     * Constructor que configura el tamaño de los puzzles y los niveles de la reserva, y empieza a rellenarla
+     * @param subcuadricula Tamaño de la subcuadrícula de los puzzles (2 a 5)
+     * @param minimo Cantidad por debajo de la cual se rellena una reserva
+     * @param maximo Capacidad de cada reserva
+     * @param hilos Número de hilos de relleno en segundo plano
+     */
+    public PoolSudoku(int subcuadricula, int minimo, int maximo, int hilos) {
+        GeometriaSudoku.de(subcuadricula); // Valida el tamaño
+        if (minimo < 0 || maximo < 1 || minimo > maximo || hilos < 1) {
+            throw new IllegalArgumentException("Configuración de pool no válida: mínimo=" + minimo
+                    + ", máximo=" + maximo + ", hilos=" + hilos);
+        }
+        this.subcuadricula = subcuadricula;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        generadores = ThreadLocal.withInitial(() -> new GeneradorSudoku(subcuadricula));
+
+        reservas = new ArrayList<>(DIFICULTADES.length);
+        rellenando = new AtomicBoolean[DIFICULTADES.length];
+        for (int i = 0; i < DIFICULTADES.length; i++) {
+            reservas.add(new ArrayBlockingQueue<>(maximo));
+            rellenando[i] = new AtomicBoolean();
+        }
+
+        AtomicInteger contador = new AtomicInteger();
+        trabajadores = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "pool-sudoku-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            hilo.setPriority(Thread.MIN_PRIORITY);
+            return hilo;
+        });
+
+        for (int i = 0; i < DIFICULTADES.length; i++) {
+            solicitarRelleno(i);
+        }
+    }
+
+    /**
+     * Obtiene un puzzle de la reserva o, si está vacía, lo genera en el hilo que llama
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @return Puzzle con solución única (0 en las celdas vacías)
+     */
+    public int[][] obtener(String dificultad) {
+        return obtener(dificultad, null).aMatriz();
+    }
+
+    /**
+     * Obtiene un puzzle y su solución de la reserva o, si está vacía, los genera en el hilo que llama
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @param solucion Tablero donde copiar la solución, o null si no hace falta
+     * @return Puzzle con solución única
+     */
+    public Tablero obtener(String dificultad, Tablero solucion) {
+        Tablero puzzle = obtenerDisponible(dificultad, solucion);
+        if (puzzle != null) {
+            return puzzle;
+        }
+        // El fallo ya lo contó obtenerDisponible
+        return generadores.get().generar(DIFICULTADES[indiceDificultad(dificultad)], solucion);
+    }
+
+    /**
+     * Obtiene un puzzle y su solución solo si ya hay uno listo en la reserva, sin esperar ni generar.
+     * Si la reserva está vacía cuenta como fallo: quien llama tendrá que generar el puzzle
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @param solucion Tablero donde copiar la solución, o null si no hace falta
+     * @return Puzzle con solución única, o null si la reserva está vacía
+     */
+    public Tablero obtenerDisponible(String dificultad, Tablero solucion) {
+        int indice = indiceDificultad(dificultad);
+        Tablero[] par = reservas.get(indice).poll();
+        if (reservas.get(indice).size() < minimo) {
+            solicitarRelleno(indice);
+        }
+        if (par == null) {
+            fallos.incrementAndGet();
+            return null;
+        }
+        aciertos.incrementAndGet();
+        if (solucion != null) {
+            solucion.copiarDe(par[1]);
+        }
+        return par[0];
+    }
+
+    /**
+     * Devuelve el tamaño de subcuadrícula de los puzzles de la reserva
+     * @return Tamaño de la subcuadrícula
+     */
+    public int getSubcuadricula() {
+        return subcuadricula;
+    }
+
+    /**
+     * Devuelve cuántos puzzles hay listos para una dificultad
+     * @param dificultad Nivel de dificultad
+     * @return Número de puzzles disponibles
+     */
+    public int disponibles(String dificultad) {
+        return reservas.get(indiceDificultad(dificultad)).size();
+    }
+
+    /**
+     * Devuelve cuántas peticiones se atendieron directamente desde la reserva
+     * @return Número de aciertos
+     */
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    /**
+     * Devuelve cuántas peticiones tuvieron que generar el puzzle al momento
+     * @return Número de fallos
+     */
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    /**
+     * Detiene los hilos de relleno
+     */
+    public void cerrar() {
+        trabajadores.shutdownNow();
+    }
+
+    /**
+     * Lanza una tarea de relleno para una reserva si no hay ya una en marcha
+     * @param indice Índice de la dificultad
+     */
+    private void solicitarRelleno(int indice) {
+        if (trabajadores.isShutdown() || !rellenando[indice].compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            trabajadores.execute(() -> {
+                try {
+                    GeneradorSudoku generador = generadores.get();
+                    while (reservas.get(indice).size() < maximo && !Thread.currentThread().isInterrupted()) {
+                        Tablero solucion = new Tablero(GeometriaSudoku.de(subcuadricula));
+                        Tablero puzzle = generador.generar(DIFICULTADES[indice], solucion);
+                        if (!reservas.get(indice).offer(new Tablero[] {puzzle, solucion})) {
+                            break;
+                        }
+                    }
+                } catch (CancellationException e) {
+                    // El pool se cerró mientras se generaba un puzzle
+                } finally {
+                    rellenando[indice].set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // El pool se cerró entre la comprobación y el envío de la tarea
+            rellenando[indice].set(false);
+        }
+    }
+
+    /**
+     * Convierte el nombre de una dificultad en su índice (fácil por defecto)
+     * @param dificultad Nivel de dificultad
+     * @return Índice de la dificultad
+     */
+    private static int indiceDificultad(String dificultad) {
+        switch (dificultad.toLowerCase()) {
+            case "medio":
+                return 1;
+            case "dificil":
+                return 2;
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,564 @@
+import java.util.SplittableRandom;
+
+/**
+ * Motor de backtracking basado en máscaras de bits.
+ * Mantiene, para cada fila, columna y subcuadrícula, una máscara con los valores
+ * ya usados, elige siempre la celda con menos candidatos y no reserva memoria
+ * durante la búsqueda. Antes de cada suposición propaga las restricciones
+ * (singles desnudos y ocultos), así que los puzzles sencillos se resuelven sin
+ * ramificar. Admite tableros de 4x4 a 25x25 (hasta 25 valores caben en una
+ * máscara int).
+ */
+public class ResolutorBitmask implements ResolutorSudoku {
+    private final GeometriaSudoku geometria;
+    private final int tamanio;
+    private final int numeroCeldas;
+
+    // Valor de cada celda (0 si está vacía)
+    private final int[] celdas;
+    // Valores usados en cada fila, columna y subcuadrícula
+    private final int[] usadosFila;
+    private final int[] usadosColumna;
+    private final int[] usadosCaja;
+    // Número de celdas vacías restantes
+    private int vacias;
+    // Fuente aleatoria para variar el orden de los valores (null = orden ascendente)
+    private SplittableRandom random;
+    // Solución conocida usada para ordenar los candidatos al buscar alternativas
+    private final int[] pista;
+    // Celdas rellenadas por propagación, en orden, para poder deshacerlas al retroceder
+    private final int[] rastro;
+    private int alturaRastro;
+
+    // Presupuesto de nodos por búsqueda y nodos visitados en la búsqueda actual
+    private long limiteNodos = Long.MAX_VALUE;
+    private long nodos;
+
+    /**
+     * Constructor que crea un resolutor determinista para tableros 9x9
+     */
+    public ResolutorBitmask() {
+        this(null);
+    }
+
+    /**
+     * Constructor que crea un resolutor para tableros 9x9 que prueba los valores en orden aleatorio
+     * @param random Fuente aleatoria, o null para probar los valores en orden ascendente
+     */
+    public ResolutorBitmask(SplittableRandom random) {
+        this(GeometriaSudoku.de(Sudoku.SUBCUADRICULA), random);
+    }
+
+    /**
+     * Constructor que crea un resolutor para un tamaño de tablero concreto
+     * @param geometria Geometría del tablero
+     * @param random Fuente aleatoria, o null para probar los valores en orden ascendente
+     */
+    public ResolutorBitmask(GeometriaSudoku geometria, SplittableRandom random) {
+        this.geometria = geometria;
+        this.tamanio = geometria.tamanio;
+        this.numeroCeldas = geometria.celdas;
+        this.random = random;
+        celdas = new int[numeroCeldas];
+        pista = new int[numeroCeldas];
+        rastro = new int[numeroCeldas];
+        usadosFila = new int[tamanio];
+        usadosColumna = new int[tamanio];
+        usadosCaja = new int[tamanio];
+    }
+
+    /**
+     * Cambia la fuente aleatoria usada para ordenar los valores
+     * @param random Fuente aleatoria, o null para probar los valores en orden ascendente
+     */
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Limita el número de nodos que puede visitar cada búsqueda.
+     * Una búsqueda que agota el presupuesto se da por fallida.
+     * @param limiteNodos Número máximo de nodos por búsqueda
+     */
+    public void setLimiteNodos(long limiteNodos) {
+        this.limiteNodos = limiteNodos;
+    }
+
+    /**
+     * Indica si la última búsqueda se interrumpió por agotar el presupuesto de nodos
+     * @return true si se agotó el presupuesto
+     */
+    public boolean isLimiteAgotado() {
+        return nodos > limiteNodos;
+    }
+
+    /**
+     * Devuelve los nodos visitados en la última búsqueda: puntos de decisión y pasadas
+     * de propagación. Un puzzle que se resuelve solo con propagación no ramifica, y
+     * visita un nodo más sus pasadas.
+     * @return Número de nodos visitados
+     */
+    public long getNodos() {
+        return nodos;
+    }
+
+    /**
+     * Carga un tablero en el resolutor
+     * @param tablero Tablero del tamaño del resolutor (0 para celdas vacías)
+     * @return false si los valores iniciales ya se contradicen entre sí
+     */
+    public boolean cargar(int[][] tablero) {
+        reiniciar();
+        boolean consistente = true;
+        for (int celda = 0; celda < numeroCeldas; celda++) {
+            consistente &= cargarCelda(celda, tablero[geometria.fila(celda)][geometria.columna(celda)]);
+        }
+        return consistente;
+    }
+
+    /**
+     * Carga un tablero plano en el resolutor
+     * @param tablero Tablero del tamaño del resolutor
+     * @return false si los valores iniciales ya se contradicen entre sí
+     */
+    public boolean cargar(Tablero tablero) {
+        reiniciar();
+        boolean consistente = true;
+        for (int celda = 0; celda < numeroCeldas; celda++) {
+            consistente &= cargarCelda(celda, tablero.get(celda));
+        }
+        return consistente;
+    }
+
+    /**
+     * Resuelve el tablero cargado, dejando la solución en el resolutor
+     * @return true si se encontró una solución
+     */
+    public boolean resolver() {
+        nodos = 0;
+        return buscar();
+    }
+
+    /**
+     * Cuenta las soluciones del tablero cargado, deteniéndose al alcanzar el límite.
+     * El estado del resolutor no cambia.
+     * @param limite Número máximo de soluciones a contar
+     * @return Número de soluciones encontradas (como mucho el límite)
+     */
+    public int contarSoluciones(int limite) {
+        nodos = 0;
+        return contar(limite);
+    }
+
+    @Override
+    public boolean resolver(int[][] tablero) {
+        if (!cargar(tablero) || !resolver()) {
+            return false;
+        }
+        copiarEn(tablero);
+        return true;
+    }
+
+    @Override
+    public int contarSoluciones(int[][] tablero, int limite) {
+        return cargar(tablero) ? contarSoluciones(limite) : 0;
+    }
+
+    /**
+     * Guarda el contenido actual (normalmente un tablero completo) como solución conocida.
+     * Las búsquedas de {@link #tieneAlternativa(int, int)} prueban primero sus valores.
+     */
+    public void recordarSolucion() {
+        System.arraycopy(celdas, 0, pista, 0, numeroCeldas);
+    }
+
+    /**
+     * Vacía una celda del tablero cargado actualizando las máscaras de forma incremental
+     * @param celda Índice de la celda (fila * tamaño + columna)
+     */
+    public void vaciarCelda(int celda) {
+        if (celdas[celda] != 0) {
+            quitar(celda);
+        }
+    }
+
+    /**
+     * Vuelve a colocar un valor en una celda vaciada (deshace {@link #vaciarCelda(int)})
+     * @param celda Índice de la celda (fila * tamaño + columna)
+     * @param valor Valor a colocar
+     */
+    public void restaurarCelda(int celda, int valor) {
+        colocar(celda, valor);
+    }
+
+    /**
+     * Comprueba si el tablero cargado admite una solución con un valor distinto en una celda.
+     * Si el tablero antes de vaciar la celda tenía solución única, esto equivale a comprobar
+     * si deja de tenerla. El estado del resolutor no cambia. Si se agota el presupuesto de
+     * nodos, se responde true para no arriesgar la unicidad.
+     * @param celda Celda vacía a comprobar
+     * @param valorConocido Valor de la celda en la solución conocida
+     * @return true si existe (o no se pudo descartar) una solución con otro valor en la celda
+     */
+    public boolean tieneAlternativa(int celda, int valorConocido) {
+        nodos = 0;
+        int candidatos = candidatos(celda) & ~(1 << valorConocido);
+        while (candidatos != 0) {
+            int bit = candidatos & -candidatos;
+            candidatos ^= bit;
+            colocar(celda, Integer.numberOfTrailingZeros(bit));
+            boolean existe = existeSolucion();
+            quitar(celda);
+            if (existe || isLimiteAgotado()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copia el contenido actual del resolutor en un tablero
+     * @param destino Tablero del tamaño del resolutor donde copiar los valores
+     */
+    public void copiarEn(int[][] destino) {
+        for (int celda = 0; celda < numeroCeldas; celda++) {
+            destino[geometria.fila(celda)][geometria.columna(celda)] = celdas[celda];
+        }
+    }
+
+    /**
+     * Copia el contenido actual del resolutor en un tablero plano
+     * @param destino Tablero del tamaño del resolutor donde copiar los valores
+     */
+    public void copiarEn(Tablero destino) {
+        for (int celda = 0; celda < numeroCeldas; celda++) {
+            destino.set(celda, celdas[celda]);
+        }
+    }
+
+    /**
+     * Vacía el resolutor antes de cargar un tablero
+     */
+    private void reiniciar() {
+        alturaRastro = 0;
+        for (int i = 0; i < tamanio; i++) {
+            usadosFila[i] = 0;
+            usadosColumna[i] = 0;
+            usadosCaja[i] = 0;
+        }
+        vacias = numeroCeldas;
+    }
+
+    /**
+     * Carga el valor inicial de una celda
+     * @param celda Índice de la celda
+     * @param valor Valor inicial (0 si está vacía)
+     * @return false si el valor está fuera de rango o ya está usado en su fila, columna o
+     *         subcuadrícula (no se coloca)
+     */
+    private boolean cargarCelda(int celda, int valor) {
+        celdas[celda] = 0;
+        if (valor == 0) {
+            return true;
+        }
+        if (valor < 0 || valor > tamanio || (usados(celda) & (1 << valor)) != 0) {
+            return false;
+        }
+        colocar(celda, valor);
+        return true;
+    }
+
+    /**
+     * Búsqueda recursiva que se detiene en la primera solución
+     * @return true si se encontró una solución
+     */
+    private boolean buscar() {
+        if (vacias == 0) {
+            return true;
+        }
+        if (++nodos > limiteNodos) {
+            return false;
+        }
+
+        int marca = alturaRastro;
+        if (!propagar()) {
+            deshacerHasta(marca);
+            return false;
+        }
+        if (vacias == 0) {
+            return true;
+        }
+        int celda = elegirCelda();
+        if (celda < 0) {
+            deshacerHasta(marca);
+            return false;
+        }
+
+        int candidatos = candidatos(celda);
+        int inicio = random == null ? 0 : random.nextInt(tamanio);
+        for (int k = 0; k < tamanio; k++) {
+            int valor = (inicio + k) % tamanio + 1;
+            if ((candidatos & (1 << valor)) == 0) {
+                continue;
+            }
+            colocar(celda, valor);
+            if (buscar()) {
+                return true;
+            }
+            quitar(celda);
+            if (nodos > limiteNodos) {
+                break;
+            }
+        }
+        deshacerHasta(marca);
+        return false;
+    }
+
+    /**
+     * Búsqueda recursiva que cuenta soluciones hasta un límite y deshace todos los cambios
+     * @param limite Número máximo de soluciones a contar
+     * @return Número de soluciones encontradas
+     */
+    private int contar(int limite) {
+        if (vacias == 0) {
+            return 1;
+        }
+        if (++nodos > limiteNodos) {
+            return 0;
+        }
+
+        int marca = alturaRastro;
+        int celda = propagar() ? elegirCelda() : -1;
+        int total = 0;
+        if (vacias == 0) {
+            total = 1;
+        } else if (celda >= 0) {
+            int candidatos = candidatos(celda);
+            while (candidatos != 0 && total < limite && nodos <= limiteNodos) {
+                int bit = candidatos & -candidatos;
+                candidatos ^= bit;
+                colocar(celda, Integer.numberOfTrailingZeros(bit));
+                total += contar(limite - total);
+                quitar(celda);
+            }
+        }
+        deshacerHasta(marca);
+        return total;
+    }
+
+    /**
+     * Búsqueda recursiva que comprueba si existe alguna solución y deshace todos los cambios.
+     * Prueba primero el valor de la solución conocida, que suele llevar antes a una solución.
+     * @return true si existe una solución
+     */
+    private boolean existeSolucion() {
+        if (vacias == 0) {
+            return true;
+        }
+        if (++nodos > limiteNodos) {
+            return false;
+        }
+
+        int marca = alturaRastro;
+        int celda = propagar() ? elegirCelda() : -1;
+        boolean existe = vacias == 0;
+        if (!existe && celda >= 0) {
+            int candidatos = candidatos(celda);
+            int preferido = 1 << pista[celda];
+            if ((candidatos & preferido) != 0) {
+                candidatos ^= preferido;
+                colocar(celda, pista[celda]);
+                existe = existeSolucion();
+                quitar(celda);
+            }
+            while (!existe && candidatos != 0 && nodos <= limiteNodos) {
+                int bit = candidatos & -candidatos;
+                candidatos ^= bit;
+                colocar(celda, Integer.numberOfTrailingZeros(bit));
+                existe = existeSolucion();
+                quitar(celda);
+            }
+        }
+        deshacerHasta(marca);
+        return existe;
+    }
+
+    /**
+     * Rellena todas las celdas forzadas hasta que no quede ninguna: singles desnudos
+     * (celdas con un solo candidato) y singles ocultos (valores que solo caben en una
+     * celda de su fila, columna o subcuadrícula). Las celdas rellenadas se apilan en
+     * el rastro para deshacerlas con {@link #deshacerHasta(int)}.
+     * @return false si se encuentra una contradicción: una celda sin candidatos o un
+     *         valor sin sitio en alguna unidad
+     */
+    private boolean propagar() {
+        boolean cambio = true;
+        while (cambio && vacias > 0) {
+            cambio = false;
+            // Cada pasada cuenta como un nodo para el presupuesto de la búsqueda
+            if (++nodos > limiteNodos) {
+                return false;
+            }
+
+            // Singles desnudos
+            for (int celda = 0; celda < numeroCeldas; celda++) {
+                if (celdas[celda] != 0) {
+                    continue;
+                }
+                int candidatos = candidatos(celda);
+                if (candidatos == 0) {
+                    return false;
+                }
+                if ((candidatos & (candidatos - 1)) == 0) {
+                    fijar(celda, Integer.numberOfTrailingZeros(candidatos));
+                    cambio = true;
+                }
+            }
+            if (cambio) {
+                continue;
+            }
+
+            // Singles ocultos: valores que aparecen como candidatos una sola vez en la unidad
+            for (int unidad = 0; unidad < geometria.numeroUnidades; unidad++) {
+                int colocados = 0;
+                int unaVez = 0;
+                int variasVeces = 0;
+                for (int i = 0; i < tamanio; i++) {
+                    int celda = geometria.celdaDeUnidad(unidad, i);
+                    if (celdas[celda] != 0) {
+                        colocados |= 1 << celdas[celda];
+                        continue;
+                    }
+                    int candidatos = candidatos(celda);
+                    variasVeces |= unaVez & candidatos;
+                    unaVez |= candidatos;
+                }
+                if ((colocados | unaVez) != geometria.todos) {
+                    return false;
+                }
+
+                int unicos = unaVez & ~variasVeces;
+                while (unicos != 0) {
+                    int bit = unicos & -unicos;
+                    unicos ^= bit;
+                    int celda = celdaConCandidato(unidad, bit);
+                    if (celda < 0) {
+                        // Otro valor único de la unidad ocupó la misma celda
+                        return false;
+                    }
+                    fijar(celda, Integer.numberOfTrailingZeros(bit));
+                    cambio = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Busca la celda vacía de una unidad que admite un valor
+     * @param unidad Índice de la unidad
+     * @param bit Bit del valor
+     * @return Índice de la celda, o -1 si ninguna celda vacía lo admite
+     */
+    private int celdaConCandidato(int unidad, int bit) {
+        for (int i = 0; i < tamanio; i++) {
+            int celda = geometria.celdaDeUnidad(unidad, i);
+            if (celdas[celda] == 0 && (candidatos(celda) & bit) != 0) {
+                return celda;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Coloca un valor deducido por propagación y lo apila en el rastro
+     * @param celda Índice de la celda
+     * @param valor Valor a colocar
+     */
+    private void fijar(int celda, int valor) {
+        colocar(celda, valor);
+        rastro[alturaRastro++] = celda;
+    }
+
+    /**
+     * Deshace las celdas rellenadas por propagación hasta una altura del rastro
+     * @param marca Altura del rastro a la que volver
+     */
+    private void deshacerHasta(int marca) {
+        while (alturaRastro > marca) {
+            quitar(rastro[--alturaRastro]);
+        }
+    }
+
+    /**
+     * Elige la celda vacía con menos candidatos
+     * @return Índice de la celda, o -1 si alguna celda vacía no tiene candidatos
+     */
+    private int elegirCelda() {
+        int mejor = -1;
+        int menor = tamanio + 1;
+        for (int celda = 0; celda < numeroCeldas; celda++) {
+            if (celdas[celda] != 0) {
+                continue;
+            }
+            int cantidad = Integer.bitCount(candidatos(celda));
+            if (cantidad < menor) {
+                if (cantidad == 0) {
+                    return -1;
+                }
+                menor = cantidad;
+                mejor = celda;
+                if (cantidad == 1) {
+                    break;
+                }
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * Devuelve los valores ya usados en la fila, columna y subcuadrícula de una celda
+     * @param celda Índice de la celda
+     * @return Máscara de bits con los valores usados
+     */
+    private int usados(int celda) {
+        return usadosFila[geometria.fila(celda)] | usadosColumna[geometria.columna(celda)]
+                | usadosCaja[geometria.caja(celda)];
+    }
+
+    /**
+     * Calcula los valores que aún se pueden colocar en una celda
+     * @param celda Índice de la celda
+     * @return Máscara de bits con los valores posibles
+     */
+    private int candidatos(int celda) {
+        return geometria.todos & ~usados(celda);
+    }
+
+    /**
+     * Coloca un valor en una celda vacía y actualiza las máscaras
+     * @param celda Índice de la celda
+     * @param valor Valor a colocar
+     */
+    private void colocar(int celda, int valor) {
+        int bit = 1 << valor;
+        celdas[celda] = valor;
+        usadosFila[geometria.fila(celda)] |= bit;
+        usadosColumna[geometria.columna(celda)] |= bit;
+        usadosCaja[geometria.caja(celda)] |= bit;
+        vacias--;
+    }
+
+    /**
+     * Vacía una celda y actualiza las máscaras
+     * @param celda Índice de la celda
+     */
+    private void quitar(int celda) {
+        int bit = ~(1 << celdas[celda]);
+        celdas[celda] = 0;
+        usadosFila[geometria.fila(celda)] &= bit;
+        usadosColumna[geometria.columna(celda)] &= bit;
+        usadosCaja[geometria.caja(celda)] &= bit;
+        vacias++;
+    }
+}
@@ -0,0 +1,320 @@
+import java.util.function.Consumer;
+
+/**
+ * Resolutor basado en Dancing Links (Algoritmo X de Knuth).
+ * El Sudoku se modela como un problema de cobertura exacta con 4·n² restricciones
+ * (celda, fila-valor, columna-valor y subcuadrícula-valor) y n³ opciones; en 9x9
+ * son 324 restricciones y 729 opciones.
+ * Todos los nodos se reservan en arreglos al construir el resolutor, por lo que
+ * la búsqueda no crea objetos.
+ */
+public class ResolutorDLX implements ResolutorSudoku {
+    private static final int RAIZ = 0;
+
+    private final GeometriaSudoku geometria;
+    private final int tamanio;
+    private final int numeroCeldas;
+    // Nodo 0 = cabecera raíz, 1..columnas = cabeceras de columna, resto = nodos de opción
+    private final int columnas;
+
+    // Enlaces de la matriz dispersa
+    private final int[] izquierda;
+    private final int[] derecha;
+    private final int[] arriba;
+    private final int[] abajo;
+    // Cabecera de columna de cada nodo
+    private final int[] columna;
+    // Opción (celda * tamaño + valor - 1) a la que pertenece cada nodo
+    private final int[] opcion;
+    // Número de nodos activos en cada columna
+    private final int[] cantidad;
+    // Primer nodo de cada opción
+    private final int[] primerNodo;
+
+    // Opciones elegidas durante la búsqueda
+    private final int[] elegidas;
+    private int profundidad;
+    // Nodos de las pistas iniciales, en el orden en que se cubrieron
+    private final int[] pistas;
+    private int numeroPistas;
+    // Tablero donde se escriben las soluciones encontradas
+    private int[][] destino;
+    // Receptor de soluciones durante la enumeración (null si no se enumera)
+    private Consumer<int[][]> receptor;
+
+    /**
+     * Constructor que construye la matriz de cobertura exacta para tableros 9x9
+     */
+    public ResolutorDLX() {
+        this(Sudoku.SUBCUADRICULA);
+    }
+
+    /**
+     * Constructor que construye la matriz de cobertura exacta para otro tamaño de tablero
+     * @param subcuadricula Tamaño de la subcuadrícula (2 a 5)
+     */
+    public ResolutorDLX(int subcuadricula) {
+        geometria = GeometriaSudoku.de(subcuadricula);
+        tamanio = geometria.tamanio;
+        numeroCeldas = geometria.celdas;
+        columnas = 4 * numeroCeldas;
+        int opciones = numeroCeldas * tamanio;
+        int nodos = 1 + columnas + opciones * 4;
+
+        izquierda = new int[nodos];
+        derecha = new int[nodos];
+        arriba = new int[nodos];
+        abajo = new int[nodos];
+        columna = new int[nodos];
+        opcion = new int[nodos];
+        cantidad = new int[columnas + 1];
+        primerNodo = new int[opciones];
+        elegidas = new int[numeroCeldas];
+        pistas = new int[numeroCeldas];
+
+        // Cabeceras enlazadas en un anillo horizontal
+        for (int c = 0; c <= columnas; c++) {
+            izquierda[c] = c == 0 ? columnas : c - 1;
+            derecha[c] = c == columnas ? 0 : c + 1;
+            arriba[c] = c;
+            abajo[c] = c;
+            columna[c] = c;
+        }
+
+        int nodo = columnas + 1;
+        for (int celda = 0; celda < numeroCeldas; celda++) {
+            int fila = geometria.fila(celda);
+            int col = geometria.columna(celda);
+            int caja = geometria.caja(celda);
+            for (int v = 0; v < tamanio; v++) {
+                int op = celda * tamanio + v;
+                int primero = nodo;
+                primerNodo[op] = primero;
+                agregarNodo(nodo++, 1 + celda, op);
+                agregarNodo(nodo++, 1 + numeroCeldas + fila * tamanio + v, op);
+                agregarNodo(nodo++, 1 + 2 * numeroCeldas + col * tamanio + v, op);
+                agregarNodo(nodo++, 1 + 3 * numeroCeldas + caja * tamanio + v, op);
+                // Enlazar los cuatro nodos de la opción en un anillo horizontal
+                for (int k = 0; k < 4; k++) {
+                    izquierda[primero + k] = primero + (k + 3) % 4;
+                    derecha[primero + k] = primero + (k + 1) % 4;
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean resolver(int[][] tablero) {
+        if (!prepararPistas(tablero)) {
+            return false;
+        }
+        destino = tablero;
+        receptor = null;
+        int encontradas = buscar(1);
+        restaurarPistas();
+        return encontradas > 0;
+    }
+
+    @Override
+    public int contarSoluciones(int[][] tablero, int limite) {
+        if (!prepararPistas(tablero)) {
+            return 0;
+        }
+        destino = null;
+        receptor = null;
+        int encontradas = buscar(limite);
+        restaurarPistas();
+        return encontradas;
+    }
+
+    /**
+     * Enumera las soluciones de un tablero sin modificarlo.
+     * Para no reservar memoria durante la búsqueda, el receptor recibe siempre el
+     * mismo tablero de trabajo: debe copiarlo si quiere conservar la solución.
+     * @param tablero Tablero a analizar
+     * @param limite Número máximo de soluciones a enumerar
+     * @param receptor Receptor de cada solución encontrada
+     * @return Número de soluciones enumeradas
+     */
+    public int enumerarSoluciones(int[][] tablero, int limite, Consumer<int[][]> receptor) {
+        if (!prepararPistas(tablero)) {
+            return 0;
+        }
+        int[][] trabajo = new int[tamanio][tamanio];
+        for (int i = 0; i < tamanio; i++) {
+            System.arraycopy(tablero[i], 0, trabajo[i], 0, tamanio);
+        }
+        destino = trabajo;
+        this.receptor = receptor;
+        int encontradas = buscar(limite);
+        this.receptor = null;
+        restaurarPistas();
+        return encontradas;
+    }
+
+    /**
+     * Añade un nodo al final de una columna
+     * @param nodo Índice del nodo
+     * @param col Cabecera de columna
+     * @param op Opción a la que pertenece
+     */
+    private void agregarNodo(int nodo, int col, int op) {
+        columna[nodo] = col;
+        opcion[nodo] = op;
+        arriba[nodo] = arriba[col];
+        abajo[nodo] = col;
+        abajo[arriba[col]] = nodo;
+        arriba[col] = nodo;
+        cantidad[col]++;
+    }
+
+    /**
+     * Selecciona las opciones correspondientes a las celdas ya rellenas
+     * @param tablero Tablero con las pistas iniciales
+     * @return false si las pistas se contradicen (la matriz queda restaurada)
+     */
+    private boolean prepararPistas(int[][] tablero) {
+        numeroPistas = 0;
+        profundidad = 0;
+        for (int celda = 0; celda < numeroCeldas; celda++) {
+            int valor = tablero[geometria.fila(celda)][geometria.columna(celda)];
+            if (valor == 0) {
+                continue;
+            }
+            // Un valor fuera de rango elegiría la opción de otra celda: se rechaza como el motor de bits
+            if (valor < 0 || valor > tamanio) {
+                restaurarPistas();
+                return false;
+            }
+            int nodo = primerNodo[celda * tamanio + valor - 1];
+            // Si alguna restricción de la opción ya está cubierta, las pistas se contradicen
+            int j = nodo;
+            do {
+                if (!estaActiva(columna[j])) {
+                    restaurarPistas();
+                    return false;
+                }
+                j = derecha[j];
+            } while (j != nodo);
+
+            j = nodo;
+            do {
+                cubrir(columna[j]);
+                j = derecha[j];
+            } while (j != nodo);
+            pistas[numeroPistas++] = nodo;
+        }
+        return true;
+    }
+
+    /**
+     * Deshace la selección de las pistas iniciales, en orden inverso
+     */
+    private void restaurarPistas() {
+        while (numeroPistas > 0) {
+            int nodo = pistas[--numeroPistas];
+            int j = izquierda[nodo];
+            do {
+                descubrir(columna[j]);
+                j = izquierda[j];
+            } while (j != izquierda[nodo]);
+        }
+    }
+
+    /**
+     * Comprueba si una columna sigue enlazada en la lista de cabeceras
+     * @param col Cabecera de columna
+     * @return true si la columna no está cubierta
+     */
+    private boolean estaActiva(int col) {
+        return derecha[izquierda[col]] == col;
+    }
+
+    /**
+     * Búsqueda recursiva del Algoritmo X
+     * @param limite Número máximo de soluciones a encontrar
+     * @return Número de soluciones encontradas
+     */
+    private int buscar(int limite) {
+        if (derecha[RAIZ] == RAIZ) {
+            registrarSolucion();
+            return 1;
+        }
+
+        // Elegir la columna con menos nodos activos
+        int elegida = derecha[RAIZ];
+        for (int c = derecha[elegida]; c != RAIZ; c = derecha[c]) {
+            if (cantidad[c] < cantidad[elegida]) {
+                elegida = c;
+            }
+        }
+        if (cantidad[elegida] == 0) {
+            return 0;
+        }
+
+        int total = 0;
+        cubrir(elegida);
+        for (int r = abajo[elegida]; r != elegida && total < limite; r = abajo[r]) {
+            elegidas[profundidad++] = opcion[r];
+            for (int j = derecha[r]; j != r; j = derecha[j]) {
+                cubrir(columna[j]);
+            }
+            total += buscar(limite - total);
+            for (int j = izquierda[r]; j != r; j = izquierda[j]) {
+                descubrir(columna[j]);
+            }
+            profundidad--;
+        }
+        descubrir(elegida);
+        return total;
+    }
+
+    /**
+     * Escribe la solución actual en el tablero de destino y la entrega al receptor
+     */
+    private void registrarSolucion() {
+        if (destino == null) {
+            return;
+        }
+        for (int i = 0; i < profundidad; i++) {
+            int op = elegidas[i];
+            int celda = op / tamanio;
+            destino[geometria.fila(celda)][geometria.columna(celda)] = op % tamanio + 1;
+        }
+        if (receptor != null) {
+            receptor.accept(destino);
+        }
+    }
+
+    /**
+     * Cubre una columna: la retira de las cabeceras junto con las opciones que la satisfacen
+     * @param col Cabecera de columna
+     */
+    private void cubrir(int col) {
+        derecha[izquierda[col]] = derecha[col];
+        izquierda[derecha[col]] = izquierda[col];
+        for (int i = abajo[col]; i != col; i = abajo[i]) {
+            for (int j = derecha[i]; j != i; j = derecha[j]) {
+                abajo[arriba[j]] = abajo[j];
+                arriba[abajo[j]] = arriba[j];
+                cantidad[columna[j]]--;
+            }
+        }
+    }
+
+    /**
+     * Deshace exactamente lo que hizo {@link #cubrir(int)}
+     * @param col Cabecera de columna
+     */
+    private void descubrir(int col) {
+        for (int i = arriba[col]; i != col; i = arriba[i]) {
+            for (int j = izquierda[i]; j != i; j = izquierda[j]) {
+                cantidad[columna[j]]++;
+                abajo[arriba[j]] = j;
+                arriba[abajo[j]] = j;
+            }
+        }
+        derecha[izquierda[col]] = col;
+        izquierda[derecha[col]] = col;
+    }
+}
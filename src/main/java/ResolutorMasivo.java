@@ -0,0 +1,296 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resuelve archivos de puzzles 9x9 en el formato habitual de una línea de 81 caracteres
+ * por puzzle ('1'-'9' para las pistas y '0' o '.' para las celdas vacías).
+ * El archivo se lee por ventanas proyectadas en memoria, los puzzles se reparten en
+ * bloques entre un pool de hilos y las soluciones se escriben en el mismo orden que la
+ * entrada. Como solo hay un número acotado de bloques en vuelo, la memoria usada no
+ * depende del tamaño del archivo.
+ *
+ * Por cada línea de entrada se escribe una línea de salida: la solución, "sin solucion"
+ * o "formato no valido". Las líneas vacías se ignoran.
+ */
+public class ResolutorMasivo {
+    // Longitud de una línea de puzzle
+    private static final int LARGO = 81;
+    // Puzzles que procesa cada tarea
+    private static final int PUZZLES_POR_BLOQUE = 4096;
+    // Tamaño de cada ventana del archivo proyectada en memoria
+    private static final long TAMANIO_VENTANA = 64L << 20;
+
+    private static final byte[] SIN_SOLUCION = "sin solucion\n".getBytes();
+    private static final byte[] FORMATO_NO_VALIDO = "formato no valido\n".getBytes();
+
+    // Un resolutor y un tablero de trabajo por hilo
+    private static final ThreadLocal<ResolutorBitmask> RESOLUTOR_POR_HILO =
+            ThreadLocal.withInitial(ResolutorBitmask::new);
+    private static final ThreadLocal<Tablero> TABLERO_POR_HILO = ThreadLocal.withInitial(Tablero::new);
+
+    private final int hilos;
+
+    /**
+     * Constructor que usa tantos hilos como procesadores disponibles
+     */
+    public ResolutorMasivo() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor que fija el número de hilos de trabajo
+     * @param hilos Número de hilos que resuelven puzzles
+     */
+    public ResolutorMasivo(int hilos) {
+        if (hilos < 1) {
+            throw new IllegalArgumentException("El número de hilos debe ser al menos 1: " + hilos);
+        }
+        this.hilos = hilos;
+    }
+
+    /**
+     * Resuelve todos los puzzles de un archivo
+     * @param entrada Archivo con un puzzle por línea
+     * @param salida Canal donde escribir una línea de resultado por puzzle
+     * @return Resumen con el número de puzzles y el tiempo empleado
+     * @throws IOException Si no se puede leer la entrada o escribir la salida
+     */
+    public Resumen resolver(Path entrada, WritableByteChannel salida) throws IOException {
+        long inicio = System.nanoTime();
+        AtomicInteger resueltos = new AtomicInteger();
+        AtomicInteger invalidos = new AtomicInteger();
+        long puzzles = 0;
+
+        AtomicInteger contador = new AtomicInteger();
+        ExecutorService trabajadores = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "resolutor-masivo-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        // Bloques en vuelo, en el orden de la entrada
+        ArrayDeque<Future<ByteBuffer>> pendientes = new ArrayDeque<>();
+        try (FileChannel canal = FileChannel.open(entrada, StandardOpenOption.READ)) {
+            Bloque bloque = new Bloque();
+            long tamanio = canal.size();
+            for (long posicion = 0; posicion < tamanio; posicion += TAMANIO_VENTANA) {
+                MappedByteBuffer ventana = canal.map(FileChannel.MapMode.READ_ONLY, posicion,
+                        Math.min(TAMANIO_VENTANA, tamanio - posicion));
+                while (ventana.hasRemaining()) {
+                    byte caracter = ventana.get();
+                    if (caracter != '\n') {
+                        bloque.agregarCaracter(caracter);
+                        continue;
+                    }
+                    if (bloque.cerrarLinea() && bloque.lleno()) {
+                        puzzles += bloque.cantidad;
+                        enviar(bloque, trabajadores, pendientes, salida, resueltos, invalidos);
+                        bloque = new Bloque();
+                    }
+                }
+            }
+            // Última línea sin salto de línea final
+            bloque.cerrarLinea();
+            if (bloque.cantidad > 0) {
+                puzzles += bloque.cantidad;
+                enviar(bloque, trabajadores, pendientes, salida, resueltos, invalidos);
+            }
+            while (!pendientes.isEmpty()) {
+                escribir(pendientes.poll(), salida);
+            }
+        } finally {
+            trabajadores.shutdownNow();
+        }
+        return new Resumen(puzzles, resueltos.get(), invalidos.get(), System.nanoTime() - inicio);
+    }
+
+    /**
+     * Envía un bloque al pool; si ya hay demasiados en vuelo, antes escribe el más antiguo
+     * @param bloque Bloque de puzzles
+     * @param trabajadores Pool de hilos
+     * @param pendientes Bloques en vuelo
+     * @param salida Canal de salida
+     * @param resueltos Contador de puzzles resueltos
+     * @param invalidos Contador de líneas con formato no válido
+     * @throws IOException Si no se puede escribir la salida
+     */
+    private void enviar(Bloque bloque, ExecutorService trabajadores, ArrayDeque<Future<ByteBuffer>> pendientes,
+                        WritableByteChannel salida, AtomicInteger resueltos, AtomicInteger invalidos)
+            throws IOException {
+        if (pendientes.size() >= 2 * hilos) {
+            escribir(pendientes.poll(), salida);
+        }
+        pendientes.add(trabajadores.submit(() -> bloque.resolver(resueltos, invalidos)));
+    }
+
+    /**
+     * Espera al resultado de un bloque y lo escribe en el canal de salida
+     * @param resultado Resultado pendiente
+     * @param salida Canal de salida
+     * @throws IOException Si no se puede escribir la salida o falla la resolución
+     */
+    private static void escribir(Future<ByteBuffer> resultado, WritableByteChannel salida) throws IOException {
+        ByteBuffer buffer;
+        try {
+            buffer = resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Resolución interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error al resolver un bloque de puzzles", e.getCause());
+        }
+        while (buffer.hasRemaining()) {
+            salida.write(buffer);
+        }
+    }
+
+    /**
+     * Grupo de líneas de entrada que resuelve una sola tarea
+     */
+    private static final class Bloque {
+        // Primeros caracteres de cada línea y longitud real de cada una
+        private final byte[] lineas = new byte[PUZZLES_POR_BLOQUE * LARGO];
+        private final int[] largos = new int[PUZZLES_POR_BLOQUE];
+        private int cantidad;
+        private int largoActual;
+
+        /**
+         * Añade un carácter a la línea en curso (los retornos de carro se ignoran)
+         * @param caracter Carácter leído
+         */
+        void agregarCaracter(byte caracter) {
+            if (caracter == '\r') {
+                return;
+            }
+            if (largoActual < LARGO) {
+                lineas[cantidad * LARGO + largoActual] = caracter;
+            }
+            largoActual++;
+        }
+
+        /**
+         * Termina la línea en curso
+         * @return true si la línea se guardó (las líneas vacías se descartan)
+         */
+        boolean cerrarLinea() {
+            if (largoActual == 0) {
+                return false;
+            }
+            largos[cantidad++] = largoActual;
+            largoActual = 0;
+            return true;
+        }
+
+        boolean lleno() {
+            return cantidad == PUZZLES_POR_BLOQUE;
+        }
+
+        /**
+         * Resuelve todas las líneas del bloque
+         * @param resueltos Contador de puzzles resueltos
+         * @param invalidos Contador de líneas con formato no válido
+         * @return Líneas de salida del bloque
+         */
+        ByteBuffer resolver(AtomicInteger resueltos, AtomicInteger invalidos) {
+            ResolutorBitmask resolutor = RESOLUTOR_POR_HILO.get();
+            Tablero tablero = TABLERO_POR_HILO.get();
+            // Cada línea de salida ocupa como mucho 82 bytes
+            ByteBuffer salida = ByteBuffer.allocate(cantidad * (LARGO + 1));
+            int resueltosBloque = 0;
+            int invalidosBloque = 0;
+            for (int i = 0; i < cantidad; i++) {
+                if (!leer(i, tablero)) {
+                    salida.put(FORMATO_NO_VALIDO);
+                    invalidosBloque++;
+                } else if (resolutor.cargar(tablero) && resolutor.resolver()) {
+                    resolutor.copiarEn(tablero);
+                    for (int celda = 0; celda < LARGO; celda++) {
+                        salida.put((byte) ('0' + tablero.get(celda)));
+                    }
+                    salida.put((byte) '\n');
+                    resueltosBloque++;
+                } else {
+                    salida.put(SIN_SOLUCION);
+                }
+            }
+            resueltos.addAndGet(resueltosBloque);
+            invalidos.addAndGet(invalidosBloque);
+            salida.flip();
+            return salida;
+        }
+
+        /**
+         * Convierte una línea en tablero
+         * @param i Índice de la línea en el bloque
+         * @param tablero Tablero donde dejar los valores
+         * @return false si la línea no tiene 81 caracteres válidos
+         */
+        private boolean leer(int i, Tablero tablero) {
+            if (largos[i] != LARGO) {
+                return false;
+            }
+            for (int celda = 0; celda < LARGO; celda++) {
+                byte caracter = lineas[i * LARGO + celda];
+                if (caracter == '.' || caracter == '0') {
+                    tablero.set(celda, 0);
+                } else if (caracter >= '1' && caracter <= '9') {
+                    tablero.set(celda, caracter - '0');
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Resumen de una resolución masiva
+     */
+    public static final class Resumen {
+        private final long puzzles;
+        private final long resueltos;
+        private final long invalidos;
+        private final long nanos;
+
+        Resumen(long puzzles, long resueltos, long invalidos, long nanos) {
+            this.puzzles = puzzles;
+            this.resueltos = resueltos;
+            this.invalidos = invalidos;
+            this.nanos = nanos;
+        }
+
+        public long getPuzzles() {
+            return puzzles;
+        }
+
+        public long getResueltos() {
+            return resueltos;
+        }
+
+        public long getInvalidos() {
+            return invalidos;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            double segundos = nanos / 1e9;
+            return String.format("%d puzzles (%d resueltos, %d sin solución, %d no válidos) en %.3f s: %.0f puzzles/s",
+                    puzzles, resueltos, puzzles - resueltos - invalidos, invalidos, segundos,
+                    segundos > 0 ? puzzles / segundos : 0);
+        }
+    }
+}
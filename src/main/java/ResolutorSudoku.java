@@ -0,0 +1,20 @@
+/**
+ * Interfaz común para los motores capaces de resolver tableros de Sudoku.
+ */
+public interface ResolutorSudoku {
+
+    /**
+     * Resuelve un tablero
+     * @param tablero Tablero a resolver; si tiene solución se rellena con ella
+     * @return true si se pudo resolver
+     */
+    boolean resolver(int[][] tablero);
+
+    /**
+     * Cuenta las soluciones de un tablero sin modificarlo
+     * @param tablero Tablero a analizar
+     * @param limite Número máximo de soluciones a contar
+     * @return Número de soluciones encontradas (como mucho el límite)
+     */
+    int contarSoluciones(int[][] tablero, int limite);
+}
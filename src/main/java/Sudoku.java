@@ -1,24 +1,115 @@
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Clase principal que representa un tablero de Sudoku y sus operaciones.
  */
 public class Sudoku {
-    // Tamaño del tablero de Sudoku (9x9)
+    // Tamaño por defecto del tablero de Sudoku (9x9)
     public static final int TAMANIO = 9;
-    // Tamaño de cada subcuadrícula (3x3)
+    // Tamaño por defecto de cada subcuadrícula (3x3)
     public static final int SUBCUADRICULA = 3;
+    // Versión del formato de guardarPartida
+    private static final int VERSION_PARTIDA = 1;
 
-    // Matriz que representa el tablero del Sudoku
-    private int[][] tablero;
-    // Matriz que indica las celdas que no se pueden modificar (valores iniciales)
-    private boolean[][] celdasFijas;
+    // Tamaño de este tablero y de sus subcuadrículas (de 4x4 a 25x25)
+    private final int tamanio;
+    private final int subcuadricula;
+    // Filas, columnas, subcuadrículas y vecinas de cada celda
+    private final GeometriaSudoku geometria;
+
+    // Valores del tablero, una posición por celda
+    private final Tablero tablero;
+    // Celdas que no se pueden modificar (valores iniciales), indexadas igual que el tablero
+    private final boolean[] celdasFijas;
+    // Número de celdas fijas (0 en un tablero montado con setValor)
+    private int numeroFijas;
+    // Valores presentes en cada fila, columna y subcuadrícula (bit v para el valor v),
+    // en el orden de unidades de GeometriaSudoku: filas, columnas y subcuadrículas
+    private final int[] ocupacion;
+    // Veces que aparece cada valor en cada unidad: setValor admite repetidos y quitar
+    // uno de ellos no debe vaciar el bit de la unidad
+    private final byte[] apariciones;
+    // Celdas con valor y apariciones repetidas (cada valor que sobra en una unidad cuenta una vez):
+    // el tablero está resuelto si todas las celdas tienen valor y no hay repeticiones
+    private int celdasLlenas;
+    private int conflictos;
+    // Posiciones (dentro de la unidad) de las celdas que tienen cada valor en cada unidad,
+    // indexadas igual que apariciones: permiten encontrar las celdas repetidas sin recorrer la unidad
+    private final int[] posiciones;
+    // Celdas cuyo valor está repetido en su fila, columna o subcuadrícula
+    private final boolean[] celdasEnConflicto;
+    // Celdas que entraron o salieron de conflicto desde la última vez que se consultó (un bit por celda)
+    private final long[] conflictosCambiados;
+    // Reserva de puzzles ya generados (null si se generan siempre al momento)
+    private final PoolSudoku pool;
+    // Movimientos de la partida en curso, para deshacerlos, rehacerlos o guardar la partida
+    private DiarioMovimientos diario = new DiarioMovimientos();
+    // Solución del puzzle: los puzzles generados la traen y los cargados de fuera se resuelven
+    // una sola vez, la primera vez que hace falta. solucionDisponible es false si no tiene solución
+    private final Tablero solucion;
+    private boolean solucionCalculada;
+    private boolean solucionDisponible;
+    // Celdas con un valor distinto del de la solución (solo se mantiene si hay solución)
+    private int celdasIncorrectas;
+    // Motor de pistas, creado la primera vez que se pide una
+    private MotorPistas motorPistas;
+    // Quienes reciben cada cambio de celda (la ventana, la consola, espectadores remotos...)
+    private final List<ObservadorSudoku> observadores = new ArrayList<>();
+    // Celdas cuyo valor cambió desde la última vez que se consultó (un bit por celda), para
+    // quien prefiera recoger los cambios por tandas en lugar de recibir cada aviso
+    private final long[] celdasCambiadas;
 
     /**
      * Constructor que inicializa un tablero vacío
      */
     public Sudoku() {
-        tablero = new int[TAMANIO][TAMANIO];
-        celdasFijas = new boolean[TAMANIO][TAMANIO];
+        this(SUBCUADRICULA, null);
+    }
+
+    /**
+     * Constructor que inicializa un tablero vacío que obtiene sus puzzles de una reserva
+     * @param pool Reserva de puzzles ya generados, o null para generarlos al momento
+     */
+    public Sudoku(PoolSudoku pool) {
+        this(SUBCUADRICULA, pool);
+    }
+
+    /**
+     * Constructor que inicializa un tablero vacío de otro tamaño
+     * @param subcuadricula Tamaño de la subcuadrícula (2 a 5: tableros de 4x4 a 25x25)
+     */
+    public Sudoku(int subcuadricula) {
+        this(subcuadricula, null);
+    }
+
+    /**
+     * Constructor que inicializa un tablero vacío de un tamaño dado
+     * @param subcuadricula Tamaño de la subcuadrícula (2 a 5: tableros de 4x4 a 25x25)
+     * @param pool Reserva de puzzles ya generados del mismo tamaño, o null para generarlos al momento
+     * @throws IllegalArgumentException Si la reserva genera puzzles de otro tamaño
+     */
+    public Sudoku(int subcuadricula, PoolSudoku pool) {
+        this.geometria = GeometriaSudoku.de(subcuadricula);
+        this.subcuadricula = subcuadricula;
+        this.tamanio = geometria.tamanio;
+        if (pool != null && pool.getSubcuadricula() != subcuadricula) {
+            throw new IllegalArgumentException("La reserva genera puzzles con subcuadrícula "
+                    + pool.getSubcuadricula() + ", no " + subcuadricula);
+        }
+        this.pool = pool;
+        tablero = new Tablero(geometria);
+        solucion = new Tablero(geometria);
+        celdasFijas = new boolean[geometria.celdas];
+        ocupacion = new int[geometria.numeroUnidades];
+        apariciones = new byte[geometria.numeroUnidades * (tamanio + 1)];
+        posiciones = new int[apariciones.length];
+        celdasEnConflicto = new boolean[geometria.celdas];
+        conflictosCambiados = new long[(geometria.celdas + 63) / 64];
+        celdasCambiadas = new long[conflictosCambiados.length];
     }
 
     /**
@@ -26,97 +117,401 @@ public class Sudoku {
      * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
      */
     public void generarTablero(String dificultad) {
-        // Utiliza GeneradorSudoku para crear un nuevo tablero
-        GeneradorSudoku generador = new GeneradorSudoku();
-        int[][] nuevoTablero = generador.generarTableroCompleto();
-
-        // Determina cuántas celdas vaciar según la dificultad
-        int celdasVacias;
-        switch (dificultad.toLowerCase()) {
-            case "facil":
-                celdasVacias = 30;
-                break;
-            case "medio":
-                celdasVacias = 40;
-                break;
-            case "dificil":
-                celdasVacias = 50;
-                break;
-            default:
-                celdasVacias = 30; // Por defecto, nivel fácil
-        }
-
-        // Aplica el patrón según la dificultad
-        generador.vaciarCeldas(nuevoTablero, celdasVacias);
-
-        // Actualiza el tablero y marca las celdas fijas
-        this.tablero = nuevoTablero;
+        // Toma un puzzle de la reserva si hay una; si no, utiliza GeneradorSudoku para crearlo.
+        // Las celdas a vaciar dependen de la dificultad
+        // La solución se conserva para comprobar valores sin resolver nada
+        if (pool != null) {
+            tablero.copiarDe(pool.obtener(dificultad, solucion));
+        } else {
+            tablero.copiarDe(new GeneradorSudoku(subcuadricula).generar(dificultad, solucion));
+        }
+
+        // Marca las celdas fijas y recalcula la ocupación de cada unidad
+        actualizarCeldasFijas();
+        solucionConocida();
+        avisarTableroCambiado();
+    }
+
+    /**
+     * Genera un tablero reproducible a partir de una semilla (por ejemplo, el puzzle del día)
+     * @param dificultad Nivel de dificultad ("facil", "medio", "dificil")
+     * @param semilla Semilla de 64 bits; la misma semilla y dificultad dan siempre el mismo tablero
+     */
+    public void generarTablero(String dificultad, long semilla) {
+        tablero.copiarDe(new GeneradorSudoku(subcuadricula, semilla).generar(dificultad, solucion));
+        actualizarCeldasFijas();
+        solucionConocida();
+        avisarTableroCambiado();
+    }
+
+    /**
+     * Carga un puzzle externo. Su solución se calcula una sola vez, la primera vez que se necesite
+     * @param puzzle Puzzle del tamaño de este tablero (0 para celdas vacías)
+     */
+    public void cargarPuzzle(int[][] puzzle) {
+        if (puzzle.length != tamanio) {
+            throw new IllegalArgumentException("El puzzle debe ser de " + tamanio + "x" + tamanio);
+        }
+        // Todas las filas se comprueban antes de tocar el tablero
+        for (int fila = 0; fila < tamanio; fila++) {
+            if (puzzle[fila] == null || puzzle[fila].length != tamanio) {
+                throw new IllegalArgumentException("El puzzle debe ser de " + tamanio + "x" + tamanio);
+            }
+        }
+        for (int fila = 0; fila < tamanio; fila++) {
+            for (int columna = 0; columna < tamanio; columna++) {
+                int valor = puzzle[fila][columna];
+                if (valor < 0 || valor > tamanio) {
+                    throw new IllegalArgumentException("El valor debe estar entre 0 y " + tamanio + ": " + valor);
+                }
+                tablero.set(fila, columna, valor);
+            }
+        }
+        actualizarCeldasFijas();
+        avisarTableroCambiado();
+    }
+
+    /**
+     * Carga un puzzle cuya solución ya se conoce, por ejemplo uno generado en otro hilo
+     * @param puzzle Puzzle del tamaño de este tablero (0 para celdas vacías)
+     * @param solucion Solución del puzzle
+     */
+    public void cargarPuzzle(Tablero puzzle, Tablero solucion) {
+        if (puzzle.getGeometria() != geometria || solucion.getGeometria() != geometria) {
+            throw new IllegalArgumentException("El puzzle debe ser de " + tamanio + "x" + tamanio);
+        }
+        tablero.copiarDe(puzzle);
+        this.solucion.copiarDe(solucion);
         actualizarCeldasFijas();
+        solucionConocida();
+        avisarTableroCambiado();
     }
 
     /**
-     * Marca las celdas no vacías como fijas (no modificables)
+     * Marca las celdas no vacías como fijas (no modificables), recalcula la ocupación
+     * y vacía el diario de movimientos. La solución del tablero anterior deja de valer
      */
     private void actualizarCeldasFijas() {
-        celdasFijas = new boolean[TAMANIO][TAMANIO];
-        for (int i = 0; i < TAMANIO; i++) {
-            for (int j = 0; j < TAMANIO; j++) {
-                celdasFijas[i][j] = tablero[i][j] != 0;
+        numeroFijas = 0;
+        for (int celda = 0; celda < celdasFijas.length; celda++) {
+            celdasFijas[celda] = tablero.get(celda) != 0;
+            if (celdasFijas[celda]) {
+                numeroFijas++;
             }
         }
+        recalcularOcupacion();
+        // Cada tablero nuevo empieza una partida nueva
+        diario.reiniciar(System.currentTimeMillis());
+        solucionCalculada = false;
+        solucionDisponible = false;
     }
 
     /**
-     * Verifica si un movimiento es válido según las reglas del Sudoku
-     * @param fila Fila donde se desea colocar el número (0-8)
-     * @param columna Columna donde se desea colocar el número (0-8)
-     * @param valor Valor a colocar (1-9)
-     * @return Mensaje de error si el movimiento no es válido, o null si es válido
+     * Marca como conocida la solución que acaba de dejar el generador en el campo solucion
      */
-    public String esMovimientoValido(int fila, int columna, int valor) {
-        // Validar límites de fila y columna
-        if (fila < 0 || fila >= TAMANIO || columna < 0 || columna >= TAMANIO) {
-            return "Posición fuera del tablero. Las filas y columnas deben estar entre 0 y 8.";
+    private void solucionConocida() {
+        solucionCalculada = true;
+        solucionDisponible = true;
+        recontarIncorrectas();
+    }
+
+    /**
+     * Calcula la solución de las celdas fijas si aún no se conoce. Un tablero montado con
+     * {@link #setValor(int, int, int)} no tiene celdas fijas: entonces se resuelve a partir
+     * de los valores que tenga, en lugar de dar una solución cualquiera del tablero vacío
+     * @return true si el puzzle tiene solución
+     */
+    private boolean asegurarSolucion() {
+        if (!solucionCalculada) {
+            solucionCalculada = true;
+            Tablero pistas = new Tablero(geometria);
+            for (int celda = 0; celda < geometria.celdas; celda++) {
+                if (celdasFijas[celda] || numeroFijas == 0) {
+                    pistas.set(celda, tablero.get(celda));
+                }
+            }
+            ResolutorBitmask resolutor = new ResolutorBitmask(geometria, null);
+            solucionDisponible = resolutor.cargar(pistas) && resolutor.resolver();
+            if (solucionDisponible) {
+                resolutor.copiarEn(solucion);
+                recontarIncorrectas();
+            }
         }
+        return solucionDisponible;
+    }
 
-        // Validar rango del valor
-        if (valor < 1 || valor > 9) {
-            return "El valor debe estar entre 1 y 9.";
+    /**
+     * Cuenta desde cero las celdas con un valor distinto del de la solución
+     */
+    private void recontarIncorrectas() {
+        celdasIncorrectas = 0;
+        for (int celda = 0; celda < geometria.celdas; celda++) {
+            int valor = tablero.get(celda);
+            if (valor != 0 && valor != solucion.get(celda)) {
+                celdasIncorrectas++;
+            }
         }
+    }
 
-        // Verificar si la celda es fija (no modificable)
-        if (celdasFijas[fila][columna]) {
-            return "Esta celda es parte del tablero inicial y no puede ser modificada.";
+    /**
+     * Recalcula desde cero la ocupación de todas las unidades
+     */
+    private void recalcularOcupacion() {
+        Arrays.fill(ocupacion, 0);
+        Arrays.fill(apariciones, (byte) 0);
+        Arrays.fill(posiciones, 0);
+        celdasLlenas = 0;
+        conflictos = 0;
+        for (int celda = 0; celda < geometria.celdas; celda++) {
+            int valor = tablero.get(celda);
+            if (valor != 0) {
+                celdasLlenas++;
+                anotar(celda, valor, 1);
+            }
         }
+        for (int celda = 0; celda < geometria.celdas; celda++) {
+            revisarConflicto(celda);
+        }
+    }
 
-        // Verificar si el valor ya existe en la misma fila
-        for (int c = 0; c < TAMANIO; c++) {
-            if (tablero[fila][c] == valor) {
-                return "El valor " + valor + " ya existe en la fila " + fila + ".";
+    /**
+     * Cambia el valor de una celda manteniendo la ocupación de sus unidades
+     * @param celda Índice de la celda
+     * @param valor Valor nuevo (0 para vaciarla)
+     */
+    private void cambiar(int celda, int valor) {
+        int anterior = tablero.get(celda);
+        if (anterior == valor) {
+            return;
+        }
+        if (anterior != 0) {
+            celdasLlenas--;
+            anotar(celda, anterior, -1);
+        }
+        tablero.set(celda, valor);
+        if (valor != 0) {
+            celdasLlenas++;
+            anotar(celda, valor, 1);
+        }
+        revisarConflicto(celda);
+        if (solucionDisponible) {
+            int correcto = solucion.get(celda);
+            if (anterior != 0 && anterior != correcto) {
+                celdasIncorrectas--;
             }
+            if (valor != 0 && valor != correcto) {
+                celdasIncorrectas++;
+            }
+        }
+
+        celdasCambiadas[celda >>> 6] |= 1L << celda;
+        int fila = geometria.fila(celda);
+        int columna = geometria.columna(celda);
+        for (int i = 0; i < observadores.size(); i++) {
+            observadores.get(i).celdaCambiada(fila, columna, anterior, valor);
+        }
+    }
+
+    /**
+     * Marca todas las celdas como cambiadas y avisa a los observadores de que hay un tablero nuevo
+     */
+    private void avisarTableroCambiado() {
+        Arrays.fill(celdasCambiadas, -1L);
+        // Los bits que sobran de la última palabra no son celdas
+        if (geometria.celdas % 64 != 0) {
+            celdasCambiadas[celdasCambiadas.length - 1] = (1L << geometria.celdas % 64) - 1;
+        }
+        for (int i = 0; i < observadores.size(); i++) {
+            observadores.get(i).tableroCambiado();
         }
+    }
+
+    /**
+     * Registra un observador que recibirá cada cambio de celda
+     * @param observador Observador a registrar
+     */
+    public void agregarObservador(ObservadorSudoku observador) {
+        observadores.add(observador);
+    }
+
+    /**
+     * Deja de avisar a un observador
+     * @param observador Observador registrado antes
+     */
+    public void quitarObservador(ObservadorSudoku observador) {
+        observadores.remove(observador);
+    }
+
+    /**
+     * Entrega las celdas cuyo valor cambió desde la llamada anterior y las olvida. Varios cambios
+     * de una misma celda cuentan una sola vez, así que basta con enviar su valor actual
+     * @param celdas Arreglo donde dejar los índices de las celdas (con sitio para todas las celdas)
+     * @return Número de celdas entregadas
+     */
+    public int drenarCeldasCambiadas(int[] celdas) {
+        return drenar(celdasCambiadas, celdas);
+    }
 
-        // Verificar si el valor ya existe en la misma columna
-        for (int f = 0; f < TAMANIO; f++) {
-            if (tablero[f][columna] == valor) {
-                return "El valor " + valor + " ya existe en la columna " + columna + ".";
+    /**
+     * Pasa a un arreglo los índices de los bits activos de un conjunto y lo vacía
+     * @param bits Conjunto de celdas, un bit por celda
+     * @param celdas Arreglo de destino
+     * @return Número de celdas escritas
+     */
+    private static int drenar(long[] bits, int[] celdas) {
+        int cantidad = 0;
+        for (int i = 0; i < bits.length; i++) {
+            for (long m = bits[i]; m != 0; m &= m - 1) {
+                celdas[cantidad++] = (i << 6) + Long.numberOfTrailingZeros(m);
             }
+            bits[i] = 0;
         }
+        return cantidad;
+    }
 
-        // Verificar si el valor ya existe en la misma subcuadrícula 3x3
-        int inicioFila = (fila / SUBCUADRICULA) * SUBCUADRICULA;
-        int inicioColumna = (columna / SUBCUADRICULA) * SUBCUADRICULA;
+    /**
+     * Suma o resta una aparición de un valor en la fila, columna y subcuadrícula de una celda
+     * @param celda Índice de la celda
+     * @param valor Valor (1 a tamaño)
+     * @param cambio 1 al poner el valor, -1 al quitarlo
+     */
+    private void anotar(int celda, int valor, int cambio) {
+        int fila = geometria.fila(celda);
+        int columna = geometria.columna(celda);
+        int enCaja = (fila % subcuadricula) * subcuadricula + columna % subcuadricula;
+        anotarEnUnidad(fila, columna, valor, cambio);
+        anotarEnUnidad(tamanio + columna, fila, valor, cambio);
+        anotarEnUnidad(2 * tamanio + geometria.caja(celda), enCaja, valor, cambio);
+    }
 
-        for (int i = 0; i < SUBCUADRICULA; i++) {
-            for (int j = 0; j < SUBCUADRICULA; j++) {
-                if (tablero[inicioFila + i][inicioColumna + j] == valor) {
-                    return "El valor " + valor + " ya existe en la subcuadrícula.";
-                }
+    /**
+     * Suma o resta una aparición de un valor en una unidad y actualiza su máscara. Si el valor
+     * pasa a estar repetido en la unidad, o deja de estarlo, revisa solo las celdas que lo tienen
+     * @param unidad Índice de la unidad
+     * @param indice Posición de la celda dentro de la unidad
+     * @param valor Valor (1 a tamaño)
+     * @param cambio 1 al poner el valor, -1 al quitarlo
+     */
+    private void anotarEnUnidad(int unidad, int indice, int valor, int cambio) {
+        int posicion = unidad * (tamanio + 1) + valor;
+        // Una aparición de más sobre una ya existente es un conflicto, y quitarla lo resuelve
+        if (cambio > 0 ? apariciones[posicion] > 0 : apariciones[posicion] > 1) {
+            conflictos += cambio;
+        }
+        apariciones[posicion] += cambio;
+        if (apariciones[posicion] == 0) {
+            ocupacion[unidad] &= ~(1 << valor);
+        } else {
+            ocupacion[unidad] |= 1 << valor;
+        }
+        if (cambio > 0) {
+            posiciones[posicion] |= 1 << indice;
+        } else {
+            posiciones[posicion] &= ~(1 << indice);
+        }
+
+        // Solo al pasar de 1 a 2 apariciones (o de 2 a 1) cambia el conflicto de las demás celdas
+        if (apariciones[posicion] == (cambio > 0 ? 2 : 1)) {
+            for (int m = posiciones[posicion]; m != 0; m &= m - 1) {
+                revisarConflicto(geometria.celdaDeUnidad(unidad, Integer.numberOfTrailingZeros(m)));
             }
         }
+    }
 
-        // Si pasa todas las validaciones, el movimiento es válido
-        return null;
+    /**
+     * Recalcula si el valor de una celda está repetido en alguna de sus unidades y, si eso
+     * cambia, la apunta entre las celdas con el conflicto cambiado
+     * @param celda Índice de la celda
+     */
+    private void revisarConflicto(int celda) {
+        int valor = tablero.get(celda);
+        boolean enConflicto = valor != 0
+                && (apariciones[geometria.fila(celda) * (tamanio + 1) + valor] > 1
+                || apariciones[(tamanio + geometria.columna(celda)) * (tamanio + 1) + valor] > 1
+                || apariciones[(2 * tamanio + geometria.caja(celda)) * (tamanio + 1) + valor] > 1);
+        if (enConflicto != celdasEnConflicto[celda]) {
+            celdasEnConflicto[celda] = enConflicto;
+            conflictosCambiados[celda >>> 6] |= 1L << celda;
+        }
+    }
+
+    /**
+     * Indica si el valor de una celda está repetido en su fila, columna o subcuadrícula (O(1))
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     * @return true si la celda está en conflicto
+     */
+    public boolean enConflicto(int fila, int columna) {
+        return celdasEnConflicto[geometria.celda(fila, columna)];
+    }
+
+    /**
+     * Entrega las celdas que entraron o salieron de conflicto desde la llamada anterior y las olvida.
+     * Tras cada movimiento solo cambian las celdas que tienen el valor anterior o el nuevo en
+     * alguna unidad de la celda movida, así que el coste no depende del tamaño del tablero
+     * @param celdas Arreglo donde dejar los índices de las celdas (con sitio para todas las celdas)
+     * @return Número de celdas entregadas
+     */
+    public int drenarConflictosCambiados(int[] celdas) {
+        return drenar(conflictosCambiados, celdas);
+    }
+
+    /**
+     * Verifica si un movimiento es válido según las reglas del Sudoku.
+     * Consulta las máscaras de ocupación de la fila, la columna y la subcuadrícula, así que
+     * su coste no depende del tamaño del tablero y no reserva memoria
+     * @param fila Fila donde se desea colocar el número (0 a tamaño - 1)
+     * @param columna Columna donde se desea colocar el número (0 a tamaño - 1)
+     * @param valor Valor a colocar (1 a tamaño)
+     * @return Motivo por el que no es válido, o null si es válido
+     */
+    public ErrorMovimiento validarMovimiento(int fila, int columna, int valor) {
+        // Validar límites de fila y columna
+        if (fila < 0 || fila >= tamanio || columna < 0 || columna >= tamanio) {
+            return ErrorMovimiento.FUERA_DEL_TABLERO;
+        }
+
+        // Validar rango del valor
+        if (valor < 1 || valor > tamanio) {
+            return ErrorMovimiento.VALOR_FUERA_DE_RANGO;
+        }
+
+        // Verificar si la celda es fija (no modificable)
+        int celda = geometria.celda(fila, columna);
+        if (celdasFijas[celda]) {
+            return ErrorMovimiento.CELDA_FIJA;
+        }
+
+        // Caso habitual: el valor no está en ninguna de las tres unidades
+        int bit = 1 << valor;
+        int caja = 2 * tamanio + geometria.caja(celda);
+        boolean ocupado = ((ocupacion[fila] | ocupacion[tamanio + columna] | ocupacion[caja]) & bit) != 0;
+        // Con las aserciones activadas (-ea), las máscaras se comparan con un recorrido de las vecinas
+        assert ocupado == (tablero.get(celda) == valor || tablero.estaEnVecinas(celda, valor))
+                : "Máscaras de ocupación desincronizadas con el tablero";
+        if (!ocupado) {
+            return null;
+        }
+        // La propia celda cuenta como de su fila
+        if ((ocupacion[fila] & bit) != 0) {
+            return ErrorMovimiento.REPETIDO_EN_FILA;
+        }
+        if ((ocupacion[tamanio + columna] & bit) != 0) {
+            return ErrorMovimiento.REPETIDO_EN_COLUMNA;
+        }
+        return ErrorMovimiento.REPETIDO_EN_SUBCUADRICULA;
+    }
+
+    /**
+     * Verifica si un movimiento es válido según las reglas del Sudoku
+     * @param fila Fila donde se desea colocar el número (0 a tamaño - 1)
+     * @param columna Columna donde se desea colocar el número (0 a tamaño - 1)
+     * @param valor Valor a colocar (1 a tamaño)
+     * @return Mensaje de error si el movimiento no es válido, o null si es válido
+     */
+    public String esMovimientoValido(int fila, int columna, int valor) {
+        ErrorMovimiento error = validarMovimiento(fila, columna, valor);
+        return error == null ? null : error.mensaje(fila, columna, valor, tamanio);
     }
 
     /**
@@ -124,101 +519,369 @@ public class Sudoku {
      * @param fila Fila donde colocar el número
      * @param columna Columna donde colocar el número
      * @param valor Valor a colocar
-     * @return true si se pudo colocar, false en caso contrario
+     * @return Motivo por el que no se pudo colocar, o null si se colocó
      */
-    public boolean colocarNumero(int fila, int columna, int valor) {
-        String error = esMovimientoValido(fila, columna, valor);
+    public ErrorMovimiento colocar(int fila, int columna, int valor) {
+        ErrorMovimiento error = validarMovimiento(fila, columna, valor);
         if (error == null) {
-            tablero[fila][columna] = valor;
-            return true;
-        } else {
-            System.out.println("Error: " + error);
+            int celda = geometria.celda(fila, columna);
+            diario.registrar(celda, tablero.get(celda), valor);
+            cambiar(celda, valor);
+        }
+        return error;
+    }
+
+    /**
+     * Escribe un valor en una celda aunque se repita en su fila, columna o subcuadrícula
+     * (queda en conflicto; ver {@link #enConflicto(int, int)}), como hace una persona en papel.
+     * Solo se rechazan las posiciones y valores fuera de rango y las celdas fijas
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     * @param valor Valor a escribir (1 a tamaño)
+     * @return Motivo por el que no se pudo escribir, o null si se escribió
+     */
+    public ErrorMovimiento escribir(int fila, int columna, int valor) {
+        if (fila < 0 || fila >= tamanio || columna < 0 || columna >= tamanio) {
+            return ErrorMovimiento.FUERA_DEL_TABLERO;
+        }
+        if (valor < 1 || valor > tamanio) {
+            return ErrorMovimiento.VALOR_FUERA_DE_RANGO;
+        }
+        int celda = geometria.celda(fila, columna);
+        if (celdasFijas[celda]) {
+            return ErrorMovimiento.CELDA_FIJA;
+        }
+        if (tablero.get(celda) != valor) {
+            diario.registrar(celda, tablero.get(celda), valor);
+            cambiar(celda, valor);
+        }
+        return null;
+    }
+
+    /**
+     * Vacía una celda que no sea fija
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     * @return Motivo por el que no se pudo vaciar, o null si se vació (o ya estaba vacía)
+     */
+    public ErrorMovimiento borrar(int fila, int columna) {
+        if (fila < 0 || fila >= tamanio || columna < 0 || columna >= tamanio) {
+            return ErrorMovimiento.FUERA_DEL_TABLERO;
+        }
+        int celda = geometria.celda(fila, columna);
+        if (celdasFijas[celda]) {
+            return ErrorMovimiento.CELDA_FIJA;
+        }
+        if (tablero.get(celda) != 0) {
+            diario.registrar(celda, tablero.get(celda), 0);
+            cambiar(celda, 0);
+        }
+        return null;
+    }
+
+    /**
+     * Deshace el último movimiento hecho con colocar o borrar
+     * @return true si había un movimiento que deshacer
+     */
+    public boolean deshacer() {
+        long movimiento = diario.deshacer();
+        if (movimiento < 0) {
             return false;
         }
+        cambiar(DiarioMovimientos.celda(movimiento), DiarioMovimientos.anterior(movimiento));
+        return true;
     }
 
     /**
-     * Verifica si el tablero está completamente resuelto y es válido
-     * @return true si el tablero está resuelto correctamente
+     * Vuelve a hacer el último movimiento deshecho
+     * @return true si había un movimiento que rehacer
      */
-    public boolean estaResuelto() {
-        // Verificar que no haya celdas vacías
-        for (int i = 0; i < TAMANIO; i++) {
-            for (int j = 0; j < TAMANIO; j++) {
-                if (tablero[i][j] == 0) {
-                    return false;
-                }
-            }
+    public boolean rehacer() {
+        long movimiento = diario.rehacer();
+        if (movimiento < 0) {
+            return false;
+        }
+        cambiar(DiarioMovimientos.celda(movimiento), DiarioMovimientos.nuevo(movimiento));
+        return true;
+    }
+
+    /**
+     * Lleva la partida al estado que tenía tras un número de movimientos, deshaciendo
+     * o rehaciendo los necesarios (cada uno cuesta O(1))
+     * @param posicion Número de movimientos aplicados (0 para el tablero inicial)
+     */
+    public void irAMovimiento(int posicion) {
+        if (posicion < 0 || posicion > diario.getCantidad()) {
+            throw new IndexOutOfBoundsException("La partida no tiene " + posicion + " movimientos");
+        }
+        while (diario.getPosicion() > posicion) {
+            deshacer();
         }
+        while (diario.getPosicion() < posicion) {
+            rehacer();
+        }
+    }
 
-        // Verificar filas
-        for (int fila = 0; fila < TAMANIO; fila++) {
-            boolean[] numeros = new boolean[TAMANIO + 1];
-            for (int col = 0; col < TAMANIO; col++) {
-                int valor = tablero[fila][col];
-                if (valor == 0 || numeros[valor]) {
-                    return false;
-                }
-                numeros[valor] = true;
-            }
+    /**
+     * Devuelve el diario de movimientos de la partida (solo para consultarlo)
+     * @return Diario de movimientos
+     */
+    public DiarioMovimientos getDiario() {
+        return diario;
+    }
+
+    /**
+     * Guarda la partida completa: tamaño, tablero inicial y diario de movimientos.
+     * Una partida de 9x9 ocupa unos cien bytes más unos pocos por movimiento
+     * @return Bytes de la partida
+     */
+    public byte[] guardarPartida() {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        salida.write(VERSION_PARTIDA);
+        salida.write(subcuadricula);
+        for (int celda = 0; celda < geometria.celdas; celda++) {
+            salida.write(celdasFijas[celda] ? tablero.get(celda) : 0);
         }
+        diario.escribir(salida);
+        return salida.toByteArray();
+    }
 
-        // Verificar columnas
-        for (int col = 0; col < TAMANIO; col++) {
-            boolean[] numeros = new boolean[TAMANIO + 1];
-            for (int fila = 0; fila < TAMANIO; fila++) {
-                int valor = tablero[fila][col];
-                if (valor == 0 || numeros[valor]) {
-                    return false;
-                }
-                numeros[valor] = true;
+    /**
+     * Reconstruye una partida guardada con {@link #guardarPartida()}, en la misma posición del diario
+     * @param datos Bytes de la partida
+     * @return Partida reconstruida
+     */
+    public static Sudoku cargarPartida(byte[] datos) {
+        ByteBuffer entrada = ByteBuffer.wrap(datos);
+        if (datos.length < 2 || entrada.get() != VERSION_PARTIDA) {
+            throw new IllegalArgumentException("Formato de partida no válido");
+        }
+        int subcuadricula = entrada.get();
+        if (subcuadricula < GeometriaSudoku.SUBCUADRICULA_MINIMA || subcuadricula > GeometriaSudoku.SUBCUADRICULA_MAXIMA
+                || entrada.remaining() < subcuadricula * subcuadricula * subcuadricula * subcuadricula) {
+            throw new IllegalArgumentException("Formato de partida no válido");
+        }
+        Sudoku sudoku = new Sudoku(subcuadricula);
+        for (int celda = 0; celda < sudoku.geometria.celdas; celda++) {
+            int valor = entrada.get();
+            if (valor < 0 || valor > sudoku.tamanio) {
+                throw new IllegalArgumentException("Formato de partida no válido");
             }
+            sudoku.tablero.set(celda, valor);
         }
+        sudoku.actualizarCeldasFijas();
 
-        // Verificar subcuadrículas
-        for (int bloqueFila = 0; bloqueFila < TAMANIO; bloqueFila += SUBCUADRICULA) {
-            for (int bloqueCol = 0; bloqueCol < TAMANIO; bloqueCol += SUBCUADRICULA) {
-                boolean[] numeros = new boolean[TAMANIO + 1];
-                for (int i = 0; i < SUBCUADRICULA; i++) {
-                    for (int j = 0; j < SUBCUADRICULA; j++) {
-                        int valor = tablero[bloqueFila + i][bloqueCol + j];
-                        if (valor == 0 || numeros[valor]) {
-                            return false;
-                        }
-                        numeros[valor] = true;
-                    }
-                }
+        // Reproducir todos los movimientos y volver a la posición guardada
+        DiarioMovimientos diario = DiarioMovimientos.leer(entrada);
+        for (int i = 0; i < diario.getCantidad(); i++) {
+            long movimiento = diario.movimiento(i);
+            int celda = DiarioMovimientos.celda(movimiento);
+            if (celda >= sudoku.geometria.celdas || sudoku.celdasFijas[celda]
+                    || sudoku.tablero.get(celda) != DiarioMovimientos.anterior(movimiento)
+                    || DiarioMovimientos.nuevo(movimiento) > sudoku.tamanio) {
+                throw new IllegalArgumentException("El diario no corresponde al tablero de la partida");
             }
+            sudoku.cambiar(celda, DiarioMovimientos.nuevo(movimiento));
+        }
+        for (int i = diario.getCantidad() - 1; i >= diario.getPosicion(); i--) {
+            sudoku.cambiar(DiarioMovimientos.celda(diario.movimiento(i)), DiarioMovimientos.anterior(diario.movimiento(i)));
         }
+        sudoku.diario = diario;
+        return sudoku;
+    }
 
-        return true;
+    /**
+     * Coloca un número en la posición especificada si el movimiento es válido
+     * @param fila Fila donde colocar el número
+     * @param columna Columna donde colocar el número
+     * @param valor Valor a colocar
+     * @return true si se pudo colocar, false en caso contrario
+     */
+    public boolean colocarNumero(int fila, int columna, int valor) {
+        return colocar(fila, columna, valor) == null;
+    }
+
+    /**
+     * Verifica si el tablero está completamente resuelto y es válido, en tiempo constante
+     * @return true si el tablero está resuelto correctamente
+     */
+    public boolean estaResuelto() {
+        // Los contadores se mantienen en cada cambio; el recorrido completo del tablero
+        // solo se hace como comprobación cuando las aserciones están activadas (-ea)
+        boolean resuelto = celdasLlenas == geometria.celdas && conflictos == 0;
+        assert resuelto == tablero.estaResuelto() : "Contadores de estado desincronizados con el tablero";
+        return resuelto;
+    }
+
+    /**
+     * Devuelve el número de celdas con valor
+     * @return Celdas llenas
+     */
+    public int getCeldasLlenas() {
+        return celdasLlenas;
+    }
+
+    /**
+     * Devuelve el número de valores repetidos en alguna fila, columna o subcuadrícula
+     * (un valor que aparece k veces en una unidad cuenta k - 1)
+     * @return Número de conflictos
+     */
+    public int getConflictos() {
+        return conflictos;
+    }
+
+    /**
+     * Devuelve los valores que se pueden colocar en una celda sin repetir ninguno de su fila,
+     * columna o subcuadrícula. Se obtienen de las máscaras de ocupación, que se mantienen en
+     * cada movimiento, así que cuesta O(1)
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     * @return Máscara de candidatos (bit v para el valor v), o 0 si la celda tiene valor
+     */
+    public int getCandidatos(int fila, int columna) {
+        return candidatos(geometria.celda(fila, columna));
+    }
+
+    /**
+     * Devuelve los candidatos de una celda a partir de su índice
+     * @param celda Índice de la celda
+     * @return Máscara de candidatos, o 0 si la celda tiene valor
+     */
+    int candidatos(int celda) {
+        if (tablero.get(celda) != 0) {
+            return 0;
+        }
+        return geometria.todos & ~(ocupacion[geometria.fila(celda)]
+                | ocupacion[tamanio + geometria.columna(celda)]
+                | ocupacion[2 * tamanio + geometria.caja(celda)]);
+    }
+
+    /**
+     * Busca el siguiente movimiento que se puede deducir y la técnica que lo justifica,
+     * o la corrección de un valor equivocado
+     * @return Pista, o null si el tablero está completo y es correcto o el puzzle no tiene solución
+     */
+    public Pista pista() {
+        if (motorPistas == null) {
+            motorPistas = new MotorPistas(subcuadricula);
+        }
+        return motorPistas.buscar(this);
+    }
+
+    /**
+     * Comprueba si un valor es el de la solución en esa celda (consulta directa, sin resolver)
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     * @param valor Valor a comprobar
+     * @return true si el valor es el correcto; false si no lo es o el puzzle no tiene solución
+     */
+    public boolean esValorCorrecto(int fila, int columna, int valor) {
+        if (fila < 0 || fila >= tamanio || columna < 0 || columna >= tamanio) {
+            return false;
+        }
+        return asegurarSolucion() && solucion.get(fila, columna) == valor;
+    }
+
+    /**
+     * Pone en una celda el valor de la solución (queda en el diario como un movimiento más)
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     * @return Valor revelado, o 0 si la posición no es válida o el puzzle no tiene solución
+     */
+    public int revelarCelda(int fila, int columna) {
+        if (fila < 0 || fila >= tamanio || columna < 0 || columna >= tamanio || !asegurarSolucion()) {
+            return 0;
+        }
+        int celda = geometria.celda(fila, columna);
+        int correcto = solucion.get(celda);
+        if (tablero.get(celda) != correcto) {
+            diario.registrar(celda, tablero.get(celda), correcto);
+            cambiar(celda, correcto);
+        }
+        return correcto;
+    }
+
+    /**
+     * Cuenta los valores colocados que no coinciden con la solución. El recuento se mantiene
+     * en cada cambio, así que después de la primera llamada cuesta O(1)
+     * @return Número de celdas incorrectas, o -1 si el puzzle no tiene solución
+     */
+    public int verificarTablero() {
+        return asegurarSolucion() ? celdasIncorrectas : -1;
+    }
+
+    /**
+     * Devuelve una copia de la solución del puzzle
+     * @return Solución, o null si el puzzle no tiene solución
+     */
+    public Tablero getSolucion() {
+        return asegurarSolucion() ? solucion.copia() : null;
     }
 
     /**
      * Imprime el tablero en la consola
      */
     public void mostrarTablero() {
-        System.out.println("┌───────┬───────┬───────┐");
-        for (int i = 0; i < TAMANIO; i++) {
+        // Cada celda ocupa el ancho del valor más largo más un espacio
+        int ancho = String.valueOf(tamanio).length();
+        StringBuilder tramo = new StringBuilder();
+        for (int i = 0; i < subcuadricula * (ancho + 1) + 1; i++) {
+            tramo.append("─");
+        }
+        System.out.println(linea("┌", "┬", "┐", tramo));
+        for (int i = 0; i < tamanio; i++) {
             System.out.print("│ ");
-            for (int j = 0; j < TAMANIO; j++) {
-                if (tablero[i][j] == 0) {
-                    System.out.print("· ");
-                } else {
-                    System.out.print(tablero[i][j] + " ");
+            for (int j = 0; j < tamanio; j++) {
+                int valor = tablero.get(i, j);
+                String texto = valor == 0 ? "·" : String.valueOf(valor);
+                for (int k = texto.length(); k < ancho; k++) {
+                    System.out.print(" ");
                 }
+                System.out.print(texto + " ");
 
-                if ((j + 1) % SUBCUADRICULA == 0 && j < TAMANIO - 1) {
+                if ((j + 1) % subcuadricula == 0 && j < tamanio - 1) {
                     System.out.print("│ ");
                 }
             }
             System.out.println("│");
 
-            if ((i + 1) % SUBCUADRICULA == 0 && i < TAMANIO - 1) {
-                System.out.println("├───────┼───────┼───────┤");
+            if ((i + 1) % subcuadricula == 0 && i < tamanio - 1) {
+                System.out.println(linea("├", "┼", "┤", tramo));
             }
         }
-        System.out.println("└───────┴───────┴───────┘");
+        System.out.println(linea("└", "┴", "┘", tramo));
+    }
+
+    /**
+     * Construye una línea horizontal del marco del tablero
+     * @param inicio Esquina izquierda
+     * @param cruce Cruce entre subcuadrículas
+     * @param fin Esquina derecha
+     * @param tramo Tramo horizontal de una subcuadrícula
+     * @return Línea completa
+     */
+    private String linea(String inicio, String cruce, String fin, CharSequence tramo) {
+        StringBuilder linea = new StringBuilder().append(inicio);
+        for (int i = 0; i < subcuadricula; i++) {
+            linea.append(tramo).append(i < subcuadricula - 1 ? cruce : fin);
+        }
+        return linea.toString();
+    }
+
+    /**
+     * Devuelve el tamaño del tablero (número de filas y columnas)
+     * @return Tamaño del tablero
+     */
+    public int getTamanio() {
+        return tamanio;
+    }
+
+    /**
+     * Devuelve el tamaño de las subcuadrículas
+     * @return Tamaño de cada subcuadrícula
+     */
+    public int getSubcuadricula() {
+        return subcuadricula;
     }
 
     /**
@@ -228,7 +891,7 @@ public class Sudoku {
      * @return Valor en la celda
      */
     public int getValor(int fila, int columna) {
-        return tablero[fila][columna];
+        return tablero.get(fila, columna);
     }
 
     /**
@@ -238,16 +901,39 @@ public class Sudoku {
      * @return true si la celda es fija
      */
     public boolean esCeldaFija(int fila, int columna) {
-        return celdasFijas[fila][columna];
+        return celdasFijas[geometria.celda(fila, columna)];
     }
 
     /**
-     * Establece un valor directamente (usado para cargar tableros)
+     * Establece un valor directamente (usado para montar tableros; no queda en el diario).
+     * No marca la celda como fija; vaciar una celda fija la deja de ser. Mientras no haya
+     * celdas fijas, la solución se calcula a partir de los valores del tablero
      * @param fila Fila donde colocar el valor
      * @param columna Columna donde colocar el valor
      * @param valor Valor a colocar
      */
     public void setValor(int fila, int columna, int valor) {
-        tablero[fila][columna] = valor;
+        if (valor < 0 || valor > tamanio) {
+            throw new IllegalArgumentException("El valor debe estar entre 0 y " + tamanio + ": " + valor);
+        }
+        int celda = geometria.celda(fila, columna);
+        if (celdasFijas[celda] || numeroFijas == 0) {
+            // Cambian las pistas: la solución habrá que volver a calcularla
+            solucionCalculada = false;
+            solucionDisponible = false;
+        }
+        if (celdasFijas[celda] && valor == 0) {
+            celdasFijas[celda] = false;
+            numeroFijas--;
+        }
+        cambiar(celda, valor);
+    }
+
+    /**
+     * Devuelve una copia del tablero actual
+     * @return Copia plana del tablero
+     */
+    public Tablero getTablero() {
+        return tablero.copia();
     }
 }
@@ -2,25 +2,41 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Clase que implementa la interfaz gráfica del juego de Sudoku.
  */
 public class SudokuGUI extends JFrame {
-    private static final int TAMANIO = 9;
-    private static final int SUBCUADRICULA = 3;
+    // Tarjetas de la zona de progreso: vacía o con la barra y el botón de cancelar
+    private static final String SIN_PROGRESO = "vacio";
+    private static final String CON_PROGRESO = "progreso";
 
     private Sudoku sudoku;
-    private JTextField[][] casillas;
-    private JPanel panelTablero;
+    // Reservas de puzzles ya generados para cada tamaño de subcuadrícula; mientras se juega,
+    // la reserva del tamaño en uso va generando en segundo plano los puzzles siguientes
+    private final PoolSudoku[] pools = new PoolSudoku[GeometriaSudoku.SUBCUADRICULA_MAXIMA + 1];
+    // Generación en curso cuando la reserva no tenía ningún puzzle listo (null si no hay)
+    private SwingWorker<Tablero[], int[]> generacion;
+    private JPanel panelPrincipal;
+    // Tablero dibujado en un solo componente
+    private VistaTablero vistaTablero;
     private JLabel statusLabel;
     private JButton botonVerificar;
     private JButton botonNuevoJuego;
+    private JButton botonDeshacer;
+    private JButton botonRehacer;
+    private JButton botonPista;
+    private JPanel zonaProgreso;
+    private JProgressBar barraProgreso;
 
     /**
      * Constructor que inicializa la interfaz gráfica
      */
     public SudokuGUI() {
+        pools[Sudoku.SUBCUADRICULA] = new PoolSudoku();
         sudoku = new Sudoku();
         inicializarInterfaz();
     }
@@ -34,16 +50,16 @@ public class SudokuGUI extends JFrame {
         setResizable(false);
 
         // Panel principal con layout BorderLayout
-        JPanel panelPrincipal = new JPanel(new BorderLayout(10, 10));
+        panelPrincipal = new JPanel(new BorderLayout(10, 10));
         panelPrincipal.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
         // Panel de control (superior)
         JPanel panelControl = crearPanelControl();
         panelPrincipal.add(panelControl, BorderLayout.NORTH);
 
-        // Panel del tablero (centro)
-        panelTablero = crearPanelTablero();
-        panelPrincipal.add(panelTablero, BorderLayout.CENTER);
+        // Tablero (centro)
+        vistaTablero = crearVistaTablero();
+        panelPrincipal.add(vistaTablero, BorderLayout.CENTER);
 
         // Panel de estado (inferior)
         JPanel panelEstado = crearPanelEstado();
@@ -84,50 +100,51 @@ public class SudokuGUI extends JFrame {
         });
         panel.add(botonVerificar);
 
+        // Botones para deshacer y rehacer movimientos
+        botonDeshacer = new JButton("Deshacer");
+        botonDeshacer.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                // La vista repinta la celda afectada al recibir el aviso de la partida
+                sudoku.deshacer();
+            }
+        });
+        panel.add(botonDeshacer);
+
+        botonRehacer = new JButton("Rehacer");
+        botonRehacer.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                // La vista repinta la celda afectada al recibir el aviso de la partida
+                sudoku.rehacer();
+            }
+        });
+        panel.add(botonRehacer);
+
+        // Botón para pedir una pista
+        botonPista = new JButton("Pista");
+        botonPista.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                mostrarPista();
+            }
+        });
+        panel.add(botonPista);
+
         return panel;
     }
 
     /**
-     * Crea el panel del tablero de Sudoku
-     * @return Panel del tablero
+     * Crea la vista del tablero, que pasa cada edición del jugador a la partida
+     * @return Vista del tablero
      */
-    private JPanel crearPanelTablero() {
-        JPanel panel = new JPanel(new GridLayout(SUBCUADRICULA, SUBCUADRICULA, 5, 5));
-        panel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-
-        casillas = new JTextField[TAMANIO][TAMANIO];
-
-        // Crear las subcuadrículas 3x3
-        for (int bloqueI = 0; bloqueI < SUBCUADRICULA; bloqueI++) {
-            for (int bloqueJ = 0; bloqueJ < SUBCUADRICULA; bloqueJ++) {
-                JPanel subPanel = new JPanel(new GridLayout(SUBCUADRICULA, SUBCUADRICULA));
-                subPanel.setBorder(BorderFactory.createLineBorder(Color.BLACK, 1));
-
-                // Crear las casillas dentro de cada subcuadrícula
-                for (int i = 0; i < SUBCUADRICULA; i++) {
-                    for (int j = 0; j < SUBCUADRICULA; j++) {
-                        int fila = bloqueI * SUBCUADRICULA + i;
-                        int columna = bloqueJ * SUBCUADRICULA + j;
-
-                        JTextField casilla = new JTextField();
-                        casilla.setHorizontalAlignment(JTextField.CENTER);
-                        casilla.setFont(new Font("Arial", Font.BOLD, 20));
-                        casilla.setDocument(new LimitadorCampoNumerico(1)); // Limitar a 1 dígito
-
-                        // Guardar referencia a la casilla
-                        casillas[fila][columna] = casilla;
-
-                        // Añadir la casilla al subpanel
-                        subPanel.add(casilla);
-                    }
-                }
-
-                // Añadir el subpanel al panel principal
-                panel.add(subPanel);
+    private VistaTablero crearVistaTablero() {
+        return new VistaTablero(sudoku, new VistaTablero.EditorCeldas() {
+            @Override
+            public void editar(int fila, int columna, int valor) {
+                editarCelda(fila, columna, valor);
             }
-        }
-
-        return panel;
+        });
     }
 
     /**
@@ -135,9 +152,31 @@ public class SudokuGUI extends JFrame {
      * @return Panel de estado
      */
     private JPanel crearPanelEstado() {
-        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JPanel panel = new JPanel(new BorderLayout(10, 0));
         statusLabel = new JLabel("Bienvenido al Sudoku. Seleccione 'Nuevo Juego' para comenzar.");
-        panel.add(statusLabel);
+        panel.add(statusLabel, BorderLayout.CENTER);
+
+        // Barra de progreso y botón de cancelar, visibles solo mientras se genera un puzzle.
+        // Las tarjetas reservan su sitio para que la ventana no cambie de tamaño
+        barraProgreso = new JProgressBar();
+        barraProgreso.setStringPainted(true);
+        JButton botonCancelar = new JButton("Cancelar");
+        botonCancelar.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (generacion != null) {
+                    generacion.cancel(true);
+                }
+            }
+        });
+        JPanel panelProgreso = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        panelProgreso.add(barraProgreso);
+        panelProgreso.add(botonCancelar);
+
+        zonaProgreso = new JPanel(new CardLayout());
+        zonaProgreso.add(new JPanel(), SIN_PROGRESO);
+        zonaProgreso.add(panelProgreso, CON_PROGRESO);
+        panel.add(zonaProgreso, BorderLayout.EAST);
         return panel;
     }
 
@@ -158,6 +197,23 @@ public class SudokuGUI extends JFrame {
         );
 
         if (opcion >= 0) {
+            String[] tamanios = {"9x9", "4x4", "16x16", "25x25"};
+            int opcionTamanio = JOptionPane.showOptionDialog(
+                    this,
+                    "Seleccione el tamaño del tablero:",
+                    "Nuevo Juego",
+                    JOptionPane.DEFAULT_OPTION,
+                    JOptionPane.QUESTION_MESSAGE,
+                    null,
+                    tamanios,
+                    tamanios[0]
+            );
+            if (opcionTamanio < 0) {
+                return;
+            }
+            int[] subcuadriculas = {3, 2, 4, 5};
+            cambiarTamanio(subcuadriculas[opcionTamanio]);
+
             String dificultad;
             switch (opcion) {
                 case 0:
@@ -178,48 +234,160 @@ public class SudokuGUI extends JFrame {
     }
 
     /**
-     * Inicia un nuevo juego con la dificultad especificada
+     * Cambia el tamaño del tablero y ajusta la vista si es necesario
+     * @param subcuadricula Tamaño de la subcuadrícula del nuevo tablero
+     */
+    private void cambiarTamanio(int subcuadricula) {
+        if (sudoku.getSubcuadricula() == subcuadricula) {
+            return;
+        }
+        sudoku = new Sudoku(subcuadricula);
+        vistaTablero.setSudoku(sudoku);
+        pack();
+        setLocationRelativeTo(null);
+    }
+
+    /**
+     * Inicia un nuevo juego con la dificultad especificada. Si la reserva tiene un puzzle listo
+     * empieza al momento; si no, lo genera en segundo plano sin bloquear la ventana
      * @param dificultad Nivel de dificultad
      */
     private void iniciarNuevoJuego(String dificultad) {
-        // Generar nuevo tablero
-        sudoku.generarTablero(dificultad);
+        if (generacion != null) {
+            generacion.cancel(true);
+        }
+        int subcuadricula = sudoku.getSubcuadricula();
+        Tablero solucion = new Tablero(GeometriaSudoku.de(subcuadricula));
+        Tablero puzzle = reserva(subcuadricula).obtenerDisponible(dificultad, solucion);
+        if (puzzle != null) {
+            empezarPartida(puzzle, solucion, dificultad);
+        } else {
+            generarEnSegundoPlano(subcuadricula, dificultad);
+        }
+    }
+
+    /**
+     * Devuelve la reserva de puzzles de un tamaño, creándola la primera vez. Al crearla
+     * empieza a generar puzzles de ese tamaño en segundo plano
+     * @param subcuadricula Tamaño de la subcuadrícula
+     * @return Reserva de puzzles del tamaño pedido
+     */
+    private PoolSudoku reserva(int subcuadricula) {
+        if (pools[subcuadricula] == null) {
+            // Los tableros grandes tardan más en generarse: basta con tener el siguiente listo
+            pools[subcuadricula] = new PoolSudoku(subcuadricula, 1, 2, 1);
+        }
+        return pools[subcuadricula];
+    }
+
+    /**
+     * Genera un puzzle en un hilo de fondo mostrando cuántas celdas lleva vaciadas y
+     * cuántas comprobaciones de unicidad ha hecho; el botón "Cancelar" lo detiene
+     * @param subcuadricula Tamaño de la subcuadrícula
+     * @param dificultad Nivel de dificultad
+     */
+    private void generarEnSegundoPlano(int subcuadricula, String dificultad) {
+        int celdasVacias = GeneradorSudoku.celdasVaciasPara(dificultad, GeometriaSudoku.de(subcuadricula).celdas);
+        barraProgreso.setMaximum(celdasVacias);
+        barraProgreso.setValue(0);
+        barraProgreso.setString("Generando...");
+        ((CardLayout) zonaProgreso.getLayout()).show(zonaProgreso, CON_PROGRESO);
+        botonNuevoJuego.setEnabled(false);
+        statusLabel.setText("Generando puzzle " + dificultad + "...");
+
+        generacion = new SwingWorker<Tablero[], int[]>() {
+            @Override
+            protected Tablero[] doInBackground() {
+                GeneradorSudoku generador = new GeneradorSudoku(subcuadricula);
+                generador.setProgreso(new GeneradorSudoku.ProgresoGeneracion() {
+                    @Override
+                    public void avance(int celdasVaciadas, int total, int comprobaciones) {
+                        publish(new int[] {celdasVaciadas, comprobaciones});
+                    }
+                });
+                Tablero solucion = new Tablero(GeometriaSudoku.de(subcuadricula));
+                Tablero puzzle = generador.generar(dificultad, solucion);
+                return new Tablero[] {puzzle, solucion};
+            }
 
-        // Actualizar la interfaz gráfica
-        actualizarTablero();
+            @Override
+            protected void process(List<int[]> avances) {
+                // Solo interesa el último avance de cada tanda
+                int[] avance = avances.get(avances.size() - 1);
+                barraProgreso.setValue(avance[0]);
+                barraProgreso.setString(avance[0] + " de " + barraProgreso.getMaximum()
+                        + " celdas, " + avance[1] + " comprobaciones");
+            }
+
+            @Override
+            protected void done() {
+                if (generacion == this) {
+                    generacion = null;
+                    ((CardLayout) zonaProgreso.getLayout()).show(zonaProgreso, SIN_PROGRESO);
+                    botonNuevoJuego.setEnabled(true);
+                }
+                if (isCancelled()) {
+                    statusLabel.setText("Generación cancelada.");
+                    return;
+                }
+                try {
+                    Tablero[] par = get();
+                    empezarPartida(par[0], par[1], dificultad);
+                } catch (InterruptedException | ExecutionException | CancellationException e) {
+                    statusLabel.setText("No se pudo generar el puzzle: " + e.getMessage());
+                }
+            }
+        };
+        generacion.execute();
+    }
+
+    /**
+     * Carga un puzzle ya generado en la partida y en la vista
+     * @param puzzle Puzzle con solución única
+     * @param solucion Solución del puzzle
+     * @param dificultad Nivel de dificultad
+     */
+    private void empezarPartida(Tablero puzzle, Tablero solucion, String dificultad) {
+        // Si entretanto se eligió otro tamaño, el puzzle ya no sirve
+        if (puzzle.getGeometria().subcuadricula != sudoku.getSubcuadricula()) {
+            return;
+        }
+        // La vista recibe el aviso del tablero nuevo y lo repinta
+        sudoku.cargarPuzzle(puzzle, solucion);
 
         // Actualizar mensaje de estado
         statusLabel.setText("Nuevo juego iniciado con dificultad: " + dificultad);
+
+        // Empezar a preparar los puzzles siguientes de este tamaño mientras se juega
+        reserva(sudoku.getSubcuadricula());
     }
 
     /**
-     * Actualiza la interfaz gráfica con el estado actual del tablero
+     * Aplica a la partida un valor escrito o borrado en la vista (queda en el diario para poder
+     * deshacerlo). Un valor repetido se acepta y la vista lo marca en rojo junto a los que repite
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     * @param valor Valor escrito (0 si se borró)
      */
-    private void actualizarTablero() {
-        for (int i = 0; i < TAMANIO; i++) {
-            for (int j = 0; j < TAMANIO; j++) {
-                int valor = sudoku.getValor(i, j);
-                JTextField casilla = casillas[i][j];
-
-                // Limpiar casilla
-                casilla.setText(valor == 0 ? "" : String.valueOf(valor));
-
-                // Establecer editable o no según si es una celda fija
-                boolean esFija = sudoku.esCeldaFija(i, j);
-                casilla.setEditable(!esFija);
-                casilla.setBackground(esFija ? new Color(240, 240, 240) : Color.WHITE);
-                casilla.setForeground(esFija ? Color.BLUE : Color.BLACK);
-            }
+    private void editarCelda(int fila, int columna, int valor) {
+        if (valor == 0) {
+            sudoku.borrar(fila, columna);
+            statusLabel.setText(" ");
+            return;
+        }
+        if (valor == sudoku.getValor(fila, columna)) {
+            return;
         }
+        // Validar antes de escribir solo sirve para explicar el conflicto: son tres máscaras
+        ErrorMovimiento conflicto = sudoku.validarMovimiento(fila, columna, valor);
+        sudoku.escribir(fila, columna, valor);
+        statusLabel.setText(conflicto == null ? " " : conflicto.mensaje(fila, columna, valor, sudoku.getTamanio()));
     }
 
     /**
      * Verifica si la solución actual es correcta
      */
     private void verificarSolucion() {
-        // Actualizar el tablero con los valores de la interfaz
-        actualizarTableroDesdeInterfaz();
-
         // Verificar si está resuelto
         if (sudoku.estaResuelto()) {
             JOptionPane.showMessageDialog(
@@ -230,9 +398,11 @@ public class SudokuGUI extends JFrame {
             );
             statusLabel.setText("¡Sudoku resuelto correctamente!");
         } else {
+            int incorrectas = sudoku.verificarTablero();
             JOptionPane.showMessageDialog(
                     this,
-                    "El Sudoku aún no está resuelto completamente o contiene errores.❌❌",
+                    "El Sudoku aún no está resuelto completamente o contiene errores.❌❌"
+                            + (incorrectas > 0 ? "\nHay " + incorrectas + " valor(es) que no coinciden con la solución." : ""),
                     "Verificación",
                     JOptionPane.WARNING_MESSAGE
             );
@@ -240,31 +410,17 @@ public class SudokuGUI extends JFrame {
     }
 
     /**
-     * Actualiza el modelo del tablero con los valores de la interfaz
+     * Muestra la siguiente pista en la barra de estado y selecciona su casilla
      */
-    private void actualizarTableroDesdeInterfaz() {
-        for (int i = 0; i < TAMANIO; i++) {
-            for (int j = 0; j < TAMANIO; j++) {
-                // Solo actualizar celdas editables (no fijas)
-                if (!sudoku.esCeldaFija(i, j)) {
-                    String texto = casillas[i][j].getText().trim();
-                    int valor = texto.isEmpty() ? 0 : Integer.parseInt(texto);
-
-                    // Validar y colocar el número
-                    if (valor > 0) {
-                        String error = sudoku.esMovimientoValido(i, j, valor);
-                        if (error == null) {
-                            sudoku.setValor(i, j, valor);
-                        } else {
-                            // Marcar error en la interfaz
-                            casillas[i][j].setBackground(new Color(255, 200, 200));
-                        }
-                    } else {
-                        sudoku.setValor(i, j, 0);
-                    }
-                }
-            }
+    private void mostrarPista() {
+        Pista pista = sudoku.pista();
+        if (pista == null) {
+            statusLabel.setText("No hay ninguna pista disponible.");
+            return;
         }
+        statusLabel.setText("Pista: " + pista);
+        vistaTablero.seleccionar(pista.getFila(), pista.getColumna());
+        vistaTablero.requestFocusInWindow();
     }
 
     /**
@@ -282,34 +438,4 @@ public class SudokuGUI extends JFrame {
         });
     }
 
-    /**
-     * Clase interna para limitar los campos de texto a solo números
-     */
-    private class LimitadorCampoNumerico extends javax.swing.text.PlainDocument {
-        private int limite;
-
-        public LimitadorCampoNumerico(int limite) {
-            this.limite = limite;
-        }
-
-        @Override
-        public void insertString(int offset, String str, javax.swing.text.AttributeSet attr)
-                throws javax.swing.text.BadLocationException {
-            if (str == null) return;
-
-            // Permitir solo dígitos del 1 al 9
-            if ((getLength() + str.length()) <= limite) {
-                String nuevaValor = getText(0, getLength()) + str;
-                try {
-                    int valor = Integer.parseInt(nuevaValor);
-                    if (valor >= 1 && valor <= 9) {
-                        super.insertString(offset, str, attr);
-                    }
-                } catch (NumberFormatException e) {
-                    // No es un número, no hacer nada
-                }
-            }
-        }
-    }
 }
-
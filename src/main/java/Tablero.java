@@ -0,0 +1,199 @@
+import java.util.Arrays;
+
+/**
+ * Tablero de Sudoku guardado en un único arreglo plano de bytes, una posición por
+ * celda (fila * tamaño + columna), con 0 en las celdas vacías.
+ * Copiar un tablero es un solo System.arraycopy y las comprobaciones recorren las
+ * tablas de vecinas de {@link GeometriaSudoku} en lugar de calcular subcuadrículas.
+ */
+public final class Tablero {
+    private final GeometriaSudoku geometria;
+    private final byte[] celdas;
+
+    /**
+     * Constructor que crea un tablero 9x9 vacío
+     */
+    public Tablero() {
+        this(GeometriaSudoku.de(Sudoku.SUBCUADRICULA));
+    }
+
+    /**
+     * Constructor que crea un tablero vacío de un tamaño dado
+     * @param geometria Geometría del tablero
+     */
+    public Tablero(GeometriaSudoku geometria) {
+        this.geometria = geometria;
+        this.celdas = new byte[geometria.celdas];
+    }
+
+    /**
+     * Crea un tablero a partir de una matriz
+     * @param matriz Matriz cuadrada (0 para celdas vacías)
+     * @return Tablero con los mismos valores
+     */
+    public static Tablero desdeMatriz(int[][] matriz) {
+        Tablero tablero = new Tablero(GeometriaSudoku.deTablero(matriz));
+        tablero.copiarDe(matriz);
+        return tablero;
+    }
+
+    /**
+     * Devuelve la geometría del tablero
+     * @return Geometría del tablero
+     */
+    public GeometriaSudoku getGeometria() {
+        return geometria;
+    }
+
+    /**
+     * Devuelve el valor de una celda
+     * @param celda Índice de la celda
+     * @return Valor de la celda (0 si está vacía)
+     */
+    public int get(int celda) {
+        return celdas[celda];
+    }
+
+    /**
+     * Devuelve el valor de una celda
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     * @return Valor de la celda (0 si está vacía)
+     */
+    public int get(int fila, int columna) {
+        return celdas[fila * geometria.tamanio + columna];
+    }
+
+    /**
+     * Establece el valor de una celda
+     * @param celda Índice de la celda
+     * @param valor Valor a colocar (0 para vaciarla)
+     */
+    public void set(int celda, int valor) {
+        celdas[celda] = (byte) valor;
+    }
+
+    /**
+     * Establece el valor de una celda
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     * @param valor Valor a colocar (0 para vaciarla)
+     */
+    public void set(int fila, int columna, int valor) {
+        celdas[fila * geometria.tamanio + columna] = (byte) valor;
+    }
+
+    /**
+     * Comprueba si algún vecino de una celda (misma fila, columna o subcuadrícula) tiene un valor
+     * @param celda Índice de la celda
+     * @param valor Valor a buscar
+     * @return true si el valor aparece en alguna celda vecina
+     */
+    public boolean estaEnVecinas(int celda, int valor) {
+        for (int k = 0; k < geometria.numeroPares; k++) {
+            if (celdas[geometria.par(celda, k)] == valor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cuenta las celdas vacías
+     * @return Número de celdas vacías
+     */
+    public int contarVacias() {
+        int vacias = 0;
+        for (byte valor : celdas) {
+            if (valor == 0) {
+                vacias++;
+            }
+        }
+        return vacias;
+    }
+
+    /**
+     * Verifica si el tablero está completo y no repite valores en ninguna fila, columna ni subcuadrícula
+     * @return true si el tablero está resuelto correctamente
+     */
+    public boolean estaResuelto() {
+        int[] usadosFila = new int[geometria.tamanio];
+        int[] usadosColumna = new int[geometria.tamanio];
+        int[] usadosCaja = new int[geometria.tamanio];
+        for (int celda = 0; celda < celdas.length; celda++) {
+            int valor = celdas[celda];
+            if (valor == 0) {
+                return false;
+            }
+            int bit = 1 << valor;
+            int fila = geometria.fila(celda);
+            int columna = geometria.columna(celda);
+            int caja = geometria.caja(celda);
+            if (((usadosFila[fila] | usadosColumna[columna] | usadosCaja[caja]) & bit) != 0) {
+                return false;
+            }
+            usadosFila[fila] |= bit;
+            usadosColumna[columna] |= bit;
+            usadosCaja[caja] |= bit;
+        }
+        return true;
+    }
+
+    /**
+     * Copia los valores de otro tablero del mismo tamaño
+     * @param otro Tablero de origen
+     */
+    public void copiarDe(Tablero otro) {
+        System.arraycopy(otro.celdas, 0, celdas, 0, celdas.length);
+    }
+
+    /**
+     * Copia los valores de una matriz del mismo tamaño
+     * @param matriz Matriz de origen
+     */
+    public void copiarDe(int[][] matriz) {
+        for (int celda = 0; celda < celdas.length; celda++) {
+            celdas[celda] = (byte) matriz[geometria.fila(celda)][geometria.columna(celda)];
+        }
+    }
+
+    /**
+     * Copia los valores en una matriz del mismo tamaño
+     * @param matriz Matriz de destino
+     */
+    public void copiarEn(int[][] matriz) {
+        for (int celda = 0; celda < celdas.length; celda++) {
+            matriz[geometria.fila(celda)][geometria.columna(celda)] = celdas[celda];
+        }
+    }
+
+    /**
+     * Crea una copia independiente del tablero
+     * @return Copia del tablero
+     */
+    public Tablero copia() {
+        Tablero copia = new Tablero(geometria);
+        copia.copiarDe(this);
+        return copia;
+    }
+
+    /**
+     * Convierte el tablero en una matriz
+     * @return Matriz cuadrada con los valores del tablero
+     */
+    public int[][] aMatriz() {
+        int[][] matriz = new int[geometria.tamanio][geometria.tamanio];
+        copiarEn(matriz);
+        return matriz;
+    }
+
+    @Override
+    public boolean equals(Object otro) {
+        return otro instanceof Tablero && Arrays.equals(celdas, ((Tablero) otro).celdas);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(celdas);
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Técnicas de resolución humanas, ordenadas de la más sencilla a la más difícil.
+ * Cada técnica tiene un peso que se suma a la puntuación de un puzzle cada vez
+ * que hace falta aplicarla.
+ */
+public enum TecnicaSudoku {
+    // Un valor que solo cabe en una celda de su fila, columna o subcuadrícula
+    SINGLE_OCULTO("Single oculto", 1),
+    // Una celda con un único candidato
+    SINGLE_DESNUDO("Single desnudo", 2),
+    // Dos celdas de una unidad con los mismos dos candidatos
+    PAR_DESNUDO("Par desnudo", 5),
+    // Un valor de una subcuadrícula confinado a una fila o columna, o al revés
+    INTERSECCION("Intersección", 6),
+    // Un valor confinado a las mismas dos columnas en dos filas, o al revés
+    X_WING("X-Wing", 12),
+    // Cadena de tres celdas bivalor: pivote {x,y} y pinzas {x,z} e {y,z}
+    XY_WING("XY-Wing", 15),
+    // Ninguna técnica avanza: hay que suponer un valor y retroceder si falla
+    SUPOSICION("Suposición", 40);
+
+    private final String nombre;
+    private final int peso;
+
+    TecnicaSudoku(String nombre, int peso) {
+        this.nombre = nombre;
+        this.peso = peso;
+    }
+
+    /**
+     * Devuelve el nombre legible de la técnica
+     * @return Nombre de la técnica
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Devuelve el peso de la técnica en la puntuación de dificultad
+     * @return Peso de la técnica
+     */
+    public int getPeso() {
+        return peso;
+    }
+}
@@ -0,0 +1,144 @@
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Deriva puzzles nuevos a partir de un puzzle semilla con solución única aplicando
+ * transformaciones que conservan la validez y la unicidad: renombrar los valores,
+ * permutar filas dentro de cada banda y columnas dentro de cada pila, permutar bandas
+ * y pilas, trasponer y girar. En 9x9 hay más de mil millones de combinaciones por
+ * semilla, y cada derivación solo cuesta recorrer el tablero una vez.
+ * El transformador no cambia tras construirse, así que se puede usar desde varios hilos.
+ */
+public final class TransformadorSudoku {
+    private final GeometriaSudoku geometria;
+    // Puzzle del que se derivan todos los demás
+    private final Tablero semilla;
+
+    /**
+     * Constructor que prepara la derivación a partir de un puzzle
+     * @param puzzle Puzzle semilla con solución única (0 para celdas vacías)
+     */
+    public TransformadorSudoku(int[][] puzzle) {
+        this(Tablero.desdeMatriz(puzzle));
+    }
+
+    /**
+     * Constructor que prepara la derivación a partir de un puzzle plano
+     * @param puzzle Puzzle semilla con solución única
+     */
+    public TransformadorSudoku(Tablero puzzle) {
+        this.geometria = puzzle.getGeometria();
+        this.semilla = puzzle.copia();
+    }
+
+    /**
+     * Deriva un puzzle: la misma semilla de transformación da siempre el mismo puzzle
+     * @param semillaTransformacion Semilla de 64 bits que elige la transformación
+     * @return Puzzle derivado
+     */
+    public Tablero derivar(long semillaTransformacion) {
+        SplittableRandom random = new SplittableRandom(semillaTransformacion);
+        int n = geometria.tamanio;
+
+        // Renombrado de valores (el 0 de las celdas vacías se conserva)
+        int[] valores = new int[n + 1];
+        int[] permutacion = permutacion(random, n);
+        for (int v = 1; v <= n; v++) {
+            valores[v] = permutacion[v - 1] + 1;
+        }
+        int[] filas = permutacionPorBloques(random, geometria);
+        int[] columnas = permutacionPorBloques(random, geometria);
+        boolean trasponer = random.nextBoolean();
+        int giros = random.nextInt(4);
+
+        Tablero resultado = new Tablero(geometria);
+        for (int f = 0; f < n; f++) {
+            for (int c = 0; c < n; c++) {
+                // Deshacer el giro (un cuarto de vuelta en sentido horario cada vez)
+                int fila = f;
+                int columna = c;
+                for (int g = 0; g < giros; g++) {
+                    int temporal = fila;
+                    fila = n - 1 - columna;
+                    columna = temporal;
+                }
+                // Deshacer la trasposición
+                if (trasponer) {
+                    int temporal = fila;
+                    fila = columna;
+                    columna = temporal;
+                }
+                resultado.set(f, c, valores[semilla.get(filas[fila], columnas[columna])]);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Deriva un puzzle en forma de matriz
+     * @param semillaTransformacion Semilla de 64 bits que elige la transformación
+     * @return Puzzle derivado (0 en las celdas vacías)
+     */
+    public int[][] derivarPuzzle(long semillaTransformacion) {
+        return derivar(semillaTransformacion).aMatriz();
+    }
+
+    /**
+     * Devuelve un flujo paralelo y reproducible de puzzles derivados.
+     * La semilla se divide de antemano en una semilla de transformación por puzzle.
+     * @param cantidad Número de puzzles a derivar
+     * @param semillaLote Semilla de 64 bits del lote
+     * @return Flujo paralelo y ordenado de puzzles
+     */
+    public Stream<int[][]> derivarFlujo(int cantidad, long semillaLote) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad de puzzles no puede ser negativa: " + cantidad);
+        }
+        long[] semillas = new SplittableRandom(semillaLote).longs(cantidad).toArray();
+        return IntStream.range(0, cantidad)
+                .parallel()
+                .mapToObj(i -> derivarPuzzle(semillas[i]));
+    }
+
+    /**
+     * Genera una permutación aleatoria de 0..n-1 que mantiene juntos los índices de cada bloque
+     * (baraja los bloques y, dentro de cada bloque, sus índices). También la usa
+     * {@link GeneradorSudoku} para barajar el tablero de patrón
+     * @param random Fuente aleatoria
+     * @param geometria Geometría del tablero
+     * @return Permutación de índices de fila o columna
+     */
+    static int[] permutacionPorBloques(SplittableRandom random, GeometriaSudoku geometria) {
+        int b = geometria.subcuadricula;
+        int[] bloques = permutacion(random, b);
+        int[] resultado = new int[geometria.tamanio];
+        for (int i = 0; i < b; i++) {
+            int[] dentro = permutacion(random, b);
+            for (int j = 0; j < b; j++) {
+                resultado[i * b + j] = bloques[i] * b + dentro[j];
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Genera una permutación aleatoria de 0..n-1 (Fisher-Yates)
+     * @param random Fuente aleatoria
+     * @param n Número de elementos
+     * @return Permutación aleatoria
+     */
+    static int[] permutacion(SplittableRandom random, int n) {
+        int[] resultado = new int[n];
+        for (int i = 0; i < n; i++) {
+            resultado[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temporal = resultado[i];
+            resultado[i] = resultado[j];
+            resultado[j] = temporal;
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,418 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * Componente que dibuja todo el tablero de Sudoku y recibe el teclado por sí mismo.
+ * Las fuentes, los colores y los textos de cada valor con su ancho se calculan una vez
+ * por tamaño de tablero, y cada cambio repinta solo el rectángulo de las celdas afectadas,
+ * así que el coste de pintar no crece con los componentes de Swing ni con los refrescos.
+ * Las celdas con un valor repetido en su fila, columna o subcuadrícula se pintan en rojo.
+ * La vista observa la partida: cada cambio de celda (también al deshacer, rehacer o revelar)
+ * repinta esa celda y las que entraron o salieron de conflicto, y solo un tablero nuevo la
+ * repinta entera.
+ */
+public class VistaTablero extends JComponent {
+    private static final long serialVersionUID = 1L;
+
+    // Colores de las celdas (compartidos por todas las vistas)
+    private static final Color FONDO = Color.WHITE;
+    private static final Color FONDO_FIJA = new Color(240, 240, 240);
+    private static final Color FONDO_SELECCION = new Color(200, 220, 255);
+    private static final Color FONDO_ERROR = new Color(255, 200, 200);
+    private static final Color TEXTO = Color.BLACK;
+    private static final Color TEXTO_FIJA = Color.BLUE;
+    private static final Color LINEA = Color.GRAY;
+    private static final Color LINEA_SUBCUADRICULA = Color.BLACK;
+    // Grosor de las líneas entre subcuadrículas y margen alrededor del tablero
+    private static final int GROSOR_SUBCUADRICULA = 3;
+    private static final int MARGEN = 5;
+    // Tiempo para escribir el segundo dígito de un valor en tableros de 16x16 y 25x25 (ms)
+    private static final int ESPERA_SEGUNDO_DIGITO = 1000;
+
+    /**
+     * Recibe los valores que el jugador escribe o borra en una celda
+     */
+    public interface EditorCeldas {
+        /**
+         * Aplica la edición de una celda
+         * @param fila Fila de la celda
+         * @param columna Columna de la celda
+         * @param valor Valor escrito (0 si se borró)
+         */
+        void editar(int fila, int columna, int valor);
+    }
+
+    private Sudoku sudoku;
+    private final EditorCeldas editor;
+    // Recibe los cambios de la partida y repinta solo lo que cambió
+    private final ObservadorSudoku observador = new ObservadorSudoku() {
+        @Override
+        public void celdaCambiada(int fila, int columna, int anterior, int nuevo) {
+            repintarCelda(fila, columna);
+            repintarConflictos();
+        }
+
+        @Override
+        public void tableroCambiado() {
+            sudoku.drenarConflictosCambiados(conflictosCambiados);
+            repaint();
+        }
+    };
+
+    // Medidas y recursos de dibujo del tamaño de tablero actual
+    private int tamanio;
+    private int subcuadricula;
+    private int lado;
+    private Font fuente;
+    private String[] textos;
+    private int[] anchos;
+    private int lineaBase;
+    private final Stroke trazoSubcuadricula = new BasicStroke(GROSOR_SUBCUADRICULA);
+
+    // Celda seleccionada (-1 si no hay ninguna)
+    private int seleccion = -1;
+    // Celdas cuyo conflicto cambió, recogidas de la partida tras cada edición
+    private int[] conflictosCambiados;
+    // Primer dígito de un valor de dos cifras, retenido hasta saber si sigue otro (0 si no hay)
+    private int pendiente;
+    // Pasado el tiempo de espera, el dígito retenido se escribe solo
+    private final Timer esperaSegundoDigito = new Timer(ESPERA_SEGUNDO_DIGITO, new ActionListener() {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            confirmarPendiente();
+        }
+    });
+
+    /**
+     * Constructor que crea la vista de una partida
+     * @param sudoku Partida a dibujar
+     * @param editor Destino de las ediciones del jugador
+     */
+    public VistaTablero(Sudoku sudoku, EditorCeldas editor) {
+        this.editor = editor;
+        esperaSegundoDigito.setRepeats(false);
+        setFocusable(true);
+        setOpaque(true);
+        setSudoku(sudoku);
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                int columna = posicionEnLinea(e.getX());
+                int fila = posicionEnLinea(e.getY());
+                if (fila >= 0 && columna >= 0) {
+                    seleccionar(fila, columna);
+                }
+            }
+        });
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                teclaPulsada(e);
+            }
+
+            @Override
+            public void keyTyped(KeyEvent e) {
+                caracterEscrito(e.getKeyChar());
+            }
+        });
+    }
+
+    /**
+     * Cambia la partida que se dibuja; si cambia el tamaño del tablero recalcula las medidas
+     * @param sudoku Partida a dibujar
+     */
+    public void setSudoku(Sudoku sudoku) {
+        if (this.sudoku != null) {
+            this.sudoku.quitarObservador(observador);
+        }
+        // Un dígito retenido era para la partida anterior
+        descartarPendiente();
+        this.sudoku = sudoku;
+        sudoku.agregarObservador(observador);
+        if (sudoku.getTamanio() != tamanio) {
+            configurar(sudoku.getTamanio(), sudoku.getSubcuadricula());
+            revalidate();
+        }
+        // Los conflictos del tablero anterior ya no importan: se repinta todo
+        observador.tableroCambiado();
+    }
+
+    /**
+     * Calcula las medidas, la fuente y los textos de cada valor para un tamaño de tablero
+     * @param tamanio Tamaño del tablero
+     * @param subcuadricula Tamaño de la subcuadrícula
+     */
+    private void configurar(int tamanio, int subcuadricula) {
+        this.tamanio = tamanio;
+        this.subcuadricula = subcuadricula;
+        // Celdas y letra más pequeñas en tableros grandes para que la ventana quepa en pantalla
+        lado = tamanio <= 9 ? 44 : tamanio <= 16 ? 34 : 28;
+        fuente = new Font("Arial", Font.BOLD, tamanio <= 9 ? 20 : tamanio <= 16 ? 14 : 11);
+        FontMetrics metricas = getFontMetrics(fuente);
+        textos = new String[tamanio + 1];
+        anchos = new int[tamanio + 1];
+        for (int valor = 1; valor <= tamanio; valor++) {
+            textos[valor] = String.valueOf(valor);
+            anchos[valor] = metricas.stringWidth(textos[valor]);
+        }
+        lineaBase = (lado - metricas.getAscent() - metricas.getDescent()) / 2 + metricas.getAscent();
+        conflictosCambiados = new int[tamanio * tamanio];
+        seleccion = -1;
+        int medida = 2 * MARGEN + tamanio * lado;
+        setPreferredSize(new Dimension(medida, medida));
+    }
+
+    /**
+     * Selecciona una celda y repinta la selección anterior y la nueva
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     */
+    public void seleccionar(int fila, int columna) {
+        int celda = fila * tamanio + columna;
+        if (celda == seleccion) {
+            return;
+        }
+        // El dígito retenido se queda en la celda en la que se escribió
+        confirmarPendiente();
+        if (seleccion >= 0) {
+            repintarCelda(seleccion / tamanio, seleccion % tamanio);
+        }
+        seleccion = celda;
+        repintarCelda(fila, columna);
+    }
+
+    /**
+     * Repinta solo las celdas que entraron o salieron de conflicto desde la última llamada
+     */
+    private void repintarConflictos() {
+        int cantidad = sudoku.drenarConflictosCambiados(conflictosCambiados);
+        for (int i = 0; i < cantidad; i++) {
+            repintarCelda(conflictosCambiados[i] / tamanio, conflictosCambiados[i] % tamanio);
+        }
+    }
+
+    /**
+     * Repinta solo el rectángulo de una celda (con las líneas que la rodean)
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     */
+    public void repintarCelda(int fila, int columna) {
+        int borde = GROSOR_SUBCUADRICULA;
+        repaint(MARGEN + columna * lado - borde, MARGEN + fila * lado - borde, lado + 2 * borde, lado + 2 * borde);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        Rectangle recorte = g2.getClipBounds();
+        if (recorte == null) {
+            recorte = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g2.setColor(getBackground() != null ? getBackground() : FONDO);
+        g2.fillRect(recorte.x, recorte.y, recorte.width, recorte.height);
+
+        // Solo las celdas que cortan el rectángulo a repintar
+        int primeraFila = limitar((recorte.y - MARGEN) / lado);
+        int ultimaFila = limitar((recorte.y + recorte.height - MARGEN) / lado);
+        int primeraColumna = limitar((recorte.x - MARGEN) / lado);
+        int ultimaColumna = limitar((recorte.x + recorte.width - MARGEN) / lado);
+
+        g2.setFont(fuente);
+        for (int fila = primeraFila; fila <= ultimaFila; fila++) {
+            for (int columna = primeraColumna; columna <= ultimaColumna; columna++) {
+                pintarCelda(g2, fila, columna);
+            }
+        }
+        pintarLineas(g2);
+    }
+
+    /**
+     * Dibuja el fondo y el valor de una celda
+     * @param g Contexto gráfico
+     * @param fila Fila de la celda
+     * @param columna Columna de la celda
+     */
+    private void pintarCelda(Graphics2D g, int fila, int columna) {
+        int celda = fila * tamanio + columna;
+        int x = MARGEN + columna * lado;
+        int y = MARGEN + fila * lado;
+        boolean fija = sudoku.esCeldaFija(fila, columna);
+
+        Color fondo = fija ? FONDO_FIJA : FONDO;
+        if (sudoku.enConflicto(fila, columna)) {
+            fondo = FONDO_ERROR;
+        } else if (celda == seleccion) {
+            fondo = FONDO_SELECCION;
+        }
+        g.setColor(fondo);
+        g.fillRect(x, y, lado, lado);
+
+        int valor = celda == seleccion && pendiente != 0 ? pendiente : sudoku.getValor(fila, columna);
+        if (valor != 0) {
+            g.setColor(fija ? TEXTO_FIJA : TEXTO);
+            g.drawString(textos[valor], x + (lado - anchos[valor]) / 2, y + lineaBase);
+        }
+    }
+
+    /**
+     * Dibuja las líneas entre celdas y, más gruesas, entre subcuadrículas
+     * @param g Contexto gráfico
+     */
+    private void pintarLineas(Graphics2D g) {
+        int fin = MARGEN + tamanio * lado;
+        g.setColor(LINEA);
+        for (int i = 0; i <= tamanio; i++) {
+            int p = MARGEN + i * lado;
+            g.drawLine(p, MARGEN, p, fin);
+            g.drawLine(MARGEN, p, fin, p);
+        }
+        Stroke trazo = g.getStroke();
+        g.setStroke(trazoSubcuadricula);
+        g.setColor(LINEA_SUBCUADRICULA);
+        for (int i = 0; i <= tamanio; i += subcuadricula) {
+            int p = MARGEN + i * lado;
+            g.drawLine(p, MARGEN, p, fin);
+            g.drawLine(MARGEN, p, fin, p);
+        }
+        g.setStroke(trazo);
+    }
+
+    /**
+     * Convierte una coordenada en píxeles en una fila o columna
+     * @param pixel Coordenada dentro del componente
+     * @return Fila o columna, o -1 si queda fuera del tablero
+     */
+    private int posicionEnLinea(int pixel) {
+        int posicion = pixel - MARGEN;
+        return posicion < 0 || posicion >= tamanio * lado ? -1 : posicion / lado;
+    }
+
+    /**
+     * Ajusta una fila o columna a los límites del tablero
+     * @param posicion Fila o columna calculada
+     * @return Posición entre 0 y tamaño - 1
+     */
+    private int limitar(int posicion) {
+        return Math.max(0, Math.min(tamanio - 1, posicion));
+    }
+
+    /**
+     * Mueve la selección con las flechas y borra con Supr o Retroceso. Sin celda seleccionada,
+     * solo las flechas seleccionan la primera; las demás teclas no hacen nada
+     * @param e Tecla pulsada
+     */
+    private void teclaPulsada(KeyEvent e) {
+        int codigo = e.getKeyCode();
+        if (seleccion < 0) {
+            if (codigo == KeyEvent.VK_UP || codigo == KeyEvent.VK_DOWN
+                    || codigo == KeyEvent.VK_LEFT || codigo == KeyEvent.VK_RIGHT) {
+                seleccionar(0, 0);
+            }
+            return;
+        }
+        int fila = seleccion / tamanio;
+        int columna = seleccion % tamanio;
+        switch (codigo) {
+            case KeyEvent.VK_UP:
+                seleccionar((fila + tamanio - 1) % tamanio, columna);
+                break;
+            case KeyEvent.VK_DOWN:
+                seleccionar((fila + 1) % tamanio, columna);
+                break;
+            case KeyEvent.VK_LEFT:
+                seleccionar(fila, (columna + tamanio - 1) % tamanio);
+                break;
+            case KeyEvent.VK_RIGHT:
+                seleccionar(fila, (columna + 1) % tamanio);
+                break;
+            case KeyEvent.VK_DELETE:
+            case KeyEvent.VK_BACK_SPACE:
+                descartarPendiente();
+                editarSeleccion(0);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Escribe un dígito en la celda seleccionada. En tableros de más de 9 valores, un dígito
+     * que aún puede ser la primera cifra de un valor (por ejemplo, el 1 en 16x16) se retiene
+     * hasta que llega la segunda o pasa el tiempo de espera, y el editor recibe solo el valor
+     * final: escribir 16 es un único movimiento
+     * @param caracter Carácter escrito
+     */
+    private void caracterEscrito(char caracter) {
+        if (seleccion < 0 || caracter < '0' || caracter > '9'
+                || sudoku.esCeldaFija(seleccion / tamanio, seleccion % tamanio)) {
+            return;
+        }
+        int digito = caracter - '0';
+        if (pendiente != 0) {
+            int valor = pendiente * 10 + digito;
+            if (valor <= tamanio) {
+                descartarPendiente();
+                editarSeleccion(valor);
+                return;
+            }
+            // No forman un valor: el dígito retenido va solo y el nuevo empieza otro
+            confirmarPendiente();
+        }
+        if (digito < 1 || digito > tamanio) {
+            return;
+        }
+        if (digito * 10 <= tamanio) {
+            pendiente = digito;
+            esperaSegundoDigito.restart();
+            repintarCelda(seleccion / tamanio, seleccion % tamanio);
+            return;
+        }
+        editarSeleccion(digito);
+    }
+
+    /**
+     * Escribe en la celda seleccionada el dígito retenido, si lo hay
+     */
+    private void confirmarPendiente() {
+        if (pendiente == 0) {
+            return;
+        }
+        int valor = pendiente;
+        descartarPendiente();
+        editarSeleccion(valor);
+    }
+
+    /**
+     * Olvida el dígito retenido sin escribirlo
+     */
+    private void descartarPendiente() {
+        esperaSegundoDigito.stop();
+        if (pendiente != 0) {
+            pendiente = 0;
+            repintarCelda(seleccion / tamanio, seleccion % tamanio);
+        }
+    }
+
+    /**
+     * Pasa al editor el nuevo valor de la celda seleccionada
+     * @param valor Valor escrito (0 para borrarla)
+     */
+    private void editarSeleccion(int valor) {
+        int fila = seleccion / tamanio;
+        int columna = seleccion % tamanio;
+        if (sudoku.esCeldaFija(fila, columna)) {
+            return;
+        }
+        // La partida avisa del cambio y la vista repinta lo necesario
+        editor.editar(fila, columna, valor);
+    }
+}
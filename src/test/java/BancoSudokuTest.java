@@ -0,0 +1,114 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BancoSudokuTest {
+
+    private static final String PUZZLE =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    private static final String SOLUCION =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void testAgregarYLeerTrasReabrir() throws IOException {
+        Path archivo = directorio.resolve("banco.sdk");
+        BancoSudoku banco = BancoSudoku.crear(archivo, 4);
+        String dificultad = banco.agregar(TablerosPrueba.tablero(PUZZLE));
+        assertEquals("facil", dificultad);
+        banco.guardar();
+
+        BancoSudoku leido = BancoSudoku.abrir(archivo, true);
+        assertEquals(4, leido.getCapacidad());
+        assertEquals(1, leido.cantidad("facil"));
+        assertEquals(0, leido.cantidad("dificil"));
+        assertEquals(TablerosPrueba.tablero(PUZZLE), leido.puzzle("facil", 0));
+        assertEquals(TablerosPrueba.tablero(SOLUCION), leido.solucion("facil", 0));
+        assertTrue(leido.puntuacion("facil", 0) > 0);
+        assertEquals(TablerosPrueba.tablero(PUZZLE), leido.puzzleAleatorio("facil"));
+        assertNull(leido.puzzleAleatorio("medio"));
+        assertThrows(IndexOutOfBoundsException.class, () -> leido.puzzle("facil", 1));
+        assertThrows(IllegalStateException.class, () -> leido.agregar(TablerosPrueba.tablero(PUZZLE)));
+    }
+
+    @Test
+    void testRegionLlenaYGenerados() throws IOException {
+        BancoSudoku banco = BancoSudoku.crear(directorio.resolve("banco.sdk"), 2);
+        assertNotNull(banco.agregar(TablerosPrueba.tablero(PUZZLE)));
+        assertNotNull(banco.agregar(TablerosPrueba.tablero(PUZZLE)));
+        assertNull(banco.agregar(TablerosPrueba.tablero(PUZZLE)));
+
+        int agregados = banco.agregarGenerados(6, "dificil");
+        int total = 0;
+        for (String dificultad : BancoSudoku.DIFICULTADES) {
+            assertTrue(banco.cantidad(dificultad) <= 2);
+            total += banco.cantidad(dificultad);
+            for (int i = 0; i < banco.cantidad(dificultad); i++) {
+                Tablero puzzle = banco.puzzle(dificultad, i);
+                Tablero solucion = banco.solucion(dificultad, i);
+                assertTrue(solucion.estaResuelto());
+                for (int celda = 0; celda < 81; celda++) {
+                    assertTrue(puzzle.get(celda) == 0 || puzzle.get(celda) == solucion.get(celda));
+                }
+            }
+        }
+        assertEquals(2 + agregados, total);
+    }
+
+    @Test
+    void testArchivoTruncadoODanado() throws IOException {
+        Path archivo = directorio.resolve("banco.sdk");
+        BancoSudoku banco = BancoSudoku.crear(archivo, 4);
+        banco.agregar(TablerosPrueba.tablero(PUZZLE));
+        banco.guardar();
+        byte[] datos = Files.readAllBytes(archivo);
+
+        // Más corto que la cabecera
+        Path corto = directorio.resolve("corto.sdk");
+        Files.write(corto, Arrays.copyOf(datos, 10));
+        assertThrows(IllegalArgumentException.class, () -> BancoSudoku.abrir(corto, true));
+
+        // Cabecera completa pero faltan registros
+        Path truncado = directorio.resolve("truncado.sdk");
+        Files.write(truncado, Arrays.copyOf(datos, datos.length - 1));
+        assertThrows(IllegalArgumentException.class, () -> BancoSudoku.abrir(truncado, true));
+
+        // Más puzzles fáciles que la capacidad (cantidad en little endian a partir del byte 12)
+        byte[] danados = datos.clone();
+        danados[12] = 5;
+        Path danado = directorio.resolve("danado.sdk");
+        Files.write(danado, danados);
+        assertThrows(IllegalArgumentException.class, () -> BancoSudoku.abrir(danado, true));
+    }
+
+    @Test
+    void testRechazaTamaniosYSolucionesNoValidos() throws IOException {
+        BancoSudoku banco = BancoSudoku.crear(directorio.resolve("banco.sdk"), 2);
+        GeneradorSudoku generador = new GeneradorSudoku(4, 42);
+        Tablero solucion16 = new Tablero(GeometriaSudoku.de(4));
+        Tablero puzzle16 = generador.generar("facil", solucion16);
+        assertThrows(IllegalArgumentException.class, () -> banco.agregar(puzzle16, solucion16));
+        assertThrows(IllegalArgumentException.class, () -> banco.agregar(puzzle16));
+        Tablero vacio4 = new Tablero(GeometriaSudoku.de(2));
+        assertThrows(IllegalArgumentException.class, () -> banco.agregar(vacio4));
+
+        // Solución incompleta y solución que contradice una pista
+        Tablero incompleta = TablerosPrueba.tablero(SOLUCION);
+        incompleta.set(80, 0);
+        assertThrows(IllegalArgumentException.class, () -> banco.agregar(TablerosPrueba.tablero(PUZZLE), incompleta));
+        Tablero otroPuzzle = TablerosPrueba.tablero(PUZZLE);
+        otroPuzzle.set(2, 1); // La solución tiene un 4 en esa celda
+        assertThrows(IllegalArgumentException.class, () -> banco.agregar(otroPuzzle, TablerosPrueba.tablero(SOLUCION)));
+        for (String dificultad : BancoSudoku.DIFICULTADES) {
+            assertEquals(0, banco.cantidad(dificultad));
+        }
+    }
+}
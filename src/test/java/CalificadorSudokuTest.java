@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CalificadorSudokuTest {
+
+    // Se resuelve solo con singles
+    private static final String FACIL =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    // Necesita técnicas avanzadas o suposiciones ("AI Escargot")
+    private static final String DIFICIL =
+            "100007090030020008009600500005300900010080002600004000300000010040000007007000300";
+
+    @Test
+    void testCalificarPuzzleFacil() {
+        CalificacionSudoku calificacion = new CalificadorSudoku().calificar(TablerosPrueba.matriz(FACIL));
+        assertTrue(calificacion.isResuelto());
+        assertEquals("facil", calificacion.getDificultad());
+        assertEquals(0, calificacion.getUsos(TecnicaSudoku.SUPOSICION));
+        // Cada celda vacía se rellena con un single
+        assertEquals(51, calificacion.getUsos(TecnicaSudoku.SINGLE_OCULTO)
+                + calificacion.getUsos(TecnicaSudoku.SINGLE_DESNUDO));
+    }
+
+    @Test
+    void testCalificarPuzzleDificil() {
+        CalificadorSudoku calificador = new CalificadorSudoku();
+        CalificacionSudoku dificil = calificador.calificar(TablerosPrueba.matriz(DIFICIL));
+        CalificacionSudoku facil = calificador.calificar(TablerosPrueba.matriz(FACIL));
+        assertTrue(dificil.isResuelto());
+        assertEquals("dificil", dificil.getDificultad());
+        assertTrue(dificil.getPuntuacion() > facil.getPuntuacion());
+    }
+
+    @Test
+    void testPuzzleSinSolucion() {
+        int[][] tablero = TablerosPrueba.matriz(FACIL);
+        tablero[0][2] = 5; // 5 repetido en la fila 0
+        assertFalse(new CalificadorSudoku().calificar(tablero).isResuelto());
+    }
+
+    @Test
+    void testCalificarLoteConservaElOrden() {
+        List<int[][]> puzzles = GeneradorSudoku.generarLote(30, "dificil", 11L);
+        List<CalificacionSudoku> calificaciones = CalificadorSudoku.calificarLote(puzzles);
+        assertEquals(puzzles.size(), calificaciones.size());
+
+        CalificadorSudoku calificador = new CalificadorSudoku();
+        for (int i = 0; i < puzzles.size(); i++) {
+            assertTrue(calificaciones.get(i).isResuelto());
+            assertEquals(calificador.calificar(puzzles.get(i)).getPuntuacion(),
+                    calificaciones.get(i).getPuntuacion());
+        }
+
+        Map<String, List<int[][]>> grupos = CalificadorSudoku.agruparPorDificultad(puzzles);
+        assertEquals(puzzles.size(), grupos.values().stream().mapToInt(List::size).sum());
+    }
+}
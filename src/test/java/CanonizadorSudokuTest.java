@@ -0,0 +1,68 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CanonizadorSudokuTest {
+
+    private static final String PUZZLE =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    private static final String SOLUCION =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+
+    @Test
+    void testEquivalentesTienenLaMismaFormaCanonica() {
+        CanonizadorSudoku canonizador = new CanonizadorSudoku();
+        for (String texto : new String[]{PUZZLE, SOLUCION}) {
+            Tablero original = TablerosPrueba.tablero(texto);
+            Tablero canonico = canonizador.canonizar(original);
+            assertEquals(canonico, canonizador.canonizar(canonico), "La forma canónica es idempotente");
+
+            TransformadorSudoku transformador = new TransformadorSudoku(original);
+            for (long semilla = 0; semilla < 20; semilla++) {
+                assertEquals(canonico, canonizador.canonizar(transformador.derivar(semilla)));
+            }
+        }
+    }
+
+    @Test
+    void testFormaCanonicaDeUnaSolucion() {
+        Tablero canonico = new CanonizadorSudoku().canonizar(TablerosPrueba.tablero(SOLUCION));
+        assertTrue(canonico.estaResuelto());
+        // La primera fila mínima de un tablero completo siempre es 1..9
+        for (int c = 0; c < 9; c++) {
+            assertEquals(c + 1, canonico.get(0, c));
+        }
+    }
+
+    @Test
+    void testIndiceDetectaDuplicadosYEquivalentes() {
+        IndiceSudoku indice = new IndiceSudoku();
+        Tablero puzzle = TablerosPrueba.tablero(PUZZLE);
+        assertTrue(indice.agregar(puzzle));
+        assertFalse(indice.agregar(puzzle.copia()));
+        assertTrue(indice.contiene(new TransformadorSudoku(puzzle).derivar(7L)));
+
+        Tablero distinto = puzzle.copia();
+        distinto.set(0, 0, 0);
+        assertFalse(indice.contiene(distinto));
+        assertTrue(indice.agregar(distinto));
+        assertEquals(2, indice.tamanio());
+    }
+
+    @Test
+    void testEliminarDuplicadosDeUnLote() {
+        List<int[][]> puzzles = new ArrayList<>(GeneradorSudoku.generarLote(200, "medio", 3L));
+        // Repetir algunos puzzles, tal cual y transformados
+        TransformadorSudoku transformador = new TransformadorSudoku(puzzles.get(0));
+        puzzles.add(puzzles.get(5));
+        puzzles.add(transformador.derivarPuzzle(1L));
+        puzzles.add(transformador.derivarPuzzle(2L));
+
+        List<int[][]> distintos = IndiceSudoku.eliminarDuplicados(puzzles);
+        assertEquals(200, distintos.size());
+        assertSame(puzzles.get(0), distintos.get(0));
+    }
+}
@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiarioMovimientosTest {
+
+    @Test
+    public void testEmpaquetadoDeMovimientos() {
+        DiarioMovimientos diario = new DiarioMovimientos();
+        diario.reiniciar(1000);
+        diario.registrar(624, 25, 17, 3500);
+        long movimiento = diario.movimiento(0);
+        assertEquals(624, DiarioMovimientos.celda(movimiento));
+        assertEquals(25, DiarioMovimientos.anterior(movimiento));
+        assertEquals(17, DiarioMovimientos.nuevo(movimiento));
+        assertEquals(2500, DiarioMovimientos.transcurrido(movimiento));
+        assertThrows(IllegalArgumentException.class, () -> diario.registrar(1024, 0, 1, 4000));
+    }
+
+    @Test
+    public void testDeshacerRehacerYDescartar() {
+        DiarioMovimientos diario = new DiarioMovimientos();
+        diario.reiniciar(0);
+        for (int i = 0; i < 100; i++) {
+            diario.registrar(i % 81, 0, i % 9 + 1, i * 10L);
+        }
+        assertEquals(990, diario.getUltimo());
+        assertEquals(-1, diario.rehacer());
+
+        assertEquals(99 % 81, DiarioMovimientos.celda(diario.deshacer()));
+        assertEquals(98 % 81, DiarioMovimientos.celda(diario.deshacer()));
+        assertEquals(970, diario.getUltimo());
+        assertTrue(diario.puedeRehacer());
+        assertEquals(98 % 81, DiarioMovimientos.celda(diario.rehacer()));
+
+        // Un movimiento nuevo descarta el que quedaba por rehacer
+        diario.registrar(5, 0, 3, 2000);
+        assertEquals(100, diario.getCantidad());
+        assertEquals(100, diario.getPosicion());
+        assertFalse(diario.puedeRehacer());
+        assertEquals(2000, diario.getUltimo());
+    }
+
+    @Test
+    public void testSerializacion() {
+        DiarioMovimientos diario = new DiarioMovimientos();
+        diario.reiniciar(1_700_000_000_000L);
+        for (int i = 0; i < 50; i++) {
+            diario.registrar(i, 0, i % 9 + 1, 1_700_000_000_000L + i * 1500L);
+        }
+        diario.deshacer();
+        diario.deshacer();
+
+        byte[] datos = diario.aBytes();
+        // Cada movimiento ocupa como mucho 5 bytes si entre dos movimientos pasan menos de 2 s
+        assertTrue(datos.length <= 50 * 5 + 16, "Ocupa " + datos.length + " bytes");
+
+        DiarioMovimientos leido = DiarioMovimientos.desdeBytes(datos);
+        assertEquals(diario.getInicio(), leido.getInicio());
+        assertEquals(50, leido.getCantidad());
+        assertEquals(48, leido.getPosicion());
+        assertEquals(diario.getUltimo(), leido.getUltimo());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(diario.movimiento(i), leido.movimiento(i));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> DiarioMovimientos.desdeBytes(java.util.Arrays.copyOf(datos, datos.length - 3)));
+    }
+
+    @Test
+    public void testDiarioCorruptoConCantidadNegativa() {
+        // inicio 0, cantidad y posición -1 (varints de 10 bytes)
+        byte[] menosUno = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};
+        byte[] datos = new byte[1 + 2 * menosUno.length];
+        System.arraycopy(menosUno, 0, datos, 1, menosUno.length);
+        System.arraycopy(menosUno, 0, datos, 1 + menosUno.length, menosUno.length);
+        assertThrows(IllegalArgumentException.class, () -> DiarioMovimientos.desdeBytes(datos));
+
+        // Cantidad válida pero posición negativa
+        byte[] posicionNegativa = new byte[2 + menosUno.length];
+        System.arraycopy(menosUno, 0, posicionNegativa, 2, menosUno.length);
+        assertThrows(IllegalArgumentException.class, () -> DiarioMovimientos.desdeBytes(posicionNegativa));
+    }
+}
@@ -1,4 +1,10 @@
 import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class GeneradorSudokuTest {
@@ -69,4 +75,127 @@ public class GeneradorSudokuTest {
         // Damos cierto margen por si el algoritmo no logra vaciar todas
         assertTrue(celdasVacias >= celdasAVaciar - 2, "Debe vaciar al menos " + (celdasAVaciar - 2) + " celdas");
     }
+
+    @Test
+    void testVaciarCeldasMantieneSolucionUnica() {
+        GeneradorSudoku generador = new GeneradorSudoku();
+        int[][] tablero = generador.generarTableroCompleto();
+
+        int celdasAVaciar = 50;
+        generador.vaciarCeldas(tablero, celdasAVaciar);
+
+        int celdasVacias = 0;
+        for (int[] fila : tablero) {
+            for (int valor : fila) {
+                if (valor == 0) celdasVacias++;
+            }
+        }
+
+        assertTrue(celdasVacias <= celdasAVaciar, "No debe vaciar más celdas de las pedidas");
+        assertEquals(1, new ResolutorDLX().contarSoluciones(tablero, 2), "El puzzle debe tener solución única");
+        assertTrue(generador.getComprobacionesUnicidad() >= celdasVacias, "Cada celda vaciada requiere una comprobación");
+    }
+
+    @Test
+    void testTieneUnicaSolucionDetectaVariasSoluciones() {
+        GeneradorSudoku generador = new GeneradorSudoku(new ResolutorDLX());
+        assertFalse(generador.tieneUnicaSolucion(new int[9][9]), "Un tablero vacío tiene muchas soluciones");
+        assertTrue(generador.tieneUnicaSolucion(generador.generarTableroCompleto()));
+    }
+
+    @Test
+    void testGenerarLoteEnParalelo() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<int[][]> lote = GeneradorSudoku.generarLote(40, "medio", pool);
+            assertEquals(40, lote.size());
+
+            ResolutorDLX resolutor = new ResolutorDLX();
+            for (int[][] puzzle : lote) {
+                assertEquals(1, resolutor.contarSoluciones(puzzle, 2), "Cada puzzle del lote debe tener solución única");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testMismaSemillaMismoPuzzle() {
+        int[][] primero = new GeneradorSudoku(20240101L).generarPuzzle("dificil");
+        int[][] segundo = new GeneradorSudoku().generarPuzzle("dificil", 20240101L);
+        assertArrayEquals(primero, segundo, "La misma semilla debe producir el mismo puzzle");
+
+        int[][] otro = new GeneradorSudoku(20240102L).generarPuzzle("dificil");
+        assertFalse(Arrays.deepEquals(primero, otro), "Semillas distintas deben dar puzzles distintos");
+    }
+
+    @Test
+    void testLoteConSemillaEsReproducible() {
+        List<int[][]> primero = GeneradorSudoku.generarLote(16, "facil", 42L);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            List<int[][]> segundo = pool.submit(() -> GeneradorSudoku.generarLote(16, "facil", 42L)).join();
+            assertEquals(primero.size(), segundo.size());
+            for (int i = 0; i < primero.size(); i++) {
+                assertArrayEquals(primero.get(i), segundo.get(i), "El puzzle " + i + " debe coincidir");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testTablerosDeOtrosTamanios() {
+        for (int subcuadricula : new int[]{2, 4}) {
+            int tamanio = subcuadricula * subcuadricula;
+            int[][] puzzle = new GeneradorSudoku(subcuadricula, 7L).generarPuzzle("medio");
+            assertEquals(tamanio, puzzle.length);
+            assertEquals(1, new ResolutorDLX(subcuadricula).contarSoluciones(puzzle, 2),
+                    "El puzzle de " + tamanio + "x" + tamanio + " debe tener solución única");
+        }
+    }
+
+    @Test
+    void testTableroCompleto25x25Valido() {
+        int[][] tablero = new GeneradorSudoku(5, 11L).generarTableroCompleto();
+        assertEquals(25, tablero.length);
+        ResolutorBitmask resolutor = new ResolutorBitmask(GeometriaSudoku.de(5), null);
+        assertTrue(resolutor.cargar(tablero), "El tablero no debe tener valores repetidos");
+        for (int[] fila : tablero) {
+            for (int valor : fila) {
+                assertTrue(valor >= 1 && valor <= 25, "Los valores deben estar entre 1 y 25");
+            }
+        }
+    }
+
+    @Test
+    void testProgresoDelVaciado() {
+        GeneradorSudoku generador = new GeneradorSudoku(5L);
+        int[] ultimo = new int[3];
+        int[] llamadas = {0};
+        generador.setProgreso((vaciadas, total, comprobaciones) -> {
+            assertTrue(vaciadas >= ultimo[0] && comprobaciones > ultimo[2]);
+            ultimo[0] = vaciadas;
+            ultimo[1] = total;
+            ultimo[2] = comprobaciones;
+            llamadas[0]++;
+        });
+        Tablero puzzle = generador.generar("medio");
+        assertEquals(40, puzzle.contarVacias());
+        assertEquals(40, ultimo[0]);
+        assertEquals(40, ultimo[1]);
+        assertEquals(llamadas[0], ultimo[2]);
+    }
+
+    @Test
+    void testGeneracionInterrumpida() {
+        GeneradorSudoku generador = new GeneradorSudoku(5L);
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class, () -> generador.generar("facil"));
+        } finally {
+            // Limpiar la marca para no afectar a otras pruebas
+            Thread.interrupted();
+        }
+    }
 }
@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MotorPistasTest {
+
+    // Se resuelve solo con singles
+    private static final String FACIL =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    // Necesita técnicas avanzadas o suposiciones (Arto Inkala, 2012)
+    private static final String DIFICIL =
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+
+    /**
+     * Sigue las pistas hasta completar el tablero
+     * @return Técnica más difícil que dieron las pistas
+     */
+    private static TecnicaSudoku resolverConPistas(Sudoku sudoku) {
+        Tablero solucion = sudoku.getSolucion();
+        TecnicaSudoku maxima = null;
+        Pista pista;
+        while ((pista = sudoku.pista()) != null) {
+            assertFalse(pista.isCorreccion());
+            assertEquals(solucion.get(pista.getFila(), pista.getColumna()), pista.getValor());
+            assertNull(sudoku.colocar(pista.getFila(), pista.getColumna(), pista.getValor()));
+            if (maxima == null || pista.getTecnica().compareTo(maxima) > 0) {
+                maxima = pista.getTecnica();
+            }
+        }
+        return maxima;
+    }
+
+    @Test
+    void testCandidatosSeMantienenAlColocarYBorrar() {
+        Sudoku sudoku = new Sudoku();
+        sudoku.cargarPuzzle(TablerosPrueba.matriz(FACIL));
+        // Fila 0: 5 3 _ _ 7 ...; columna 2: 8; subcuadrícula: 6 9 8
+        int bits = 0;
+        for (int v : new int[] {1, 2, 4}) {
+            bits |= 1 << v;
+        }
+        assertEquals(bits, sudoku.getCandidatos(0, 2));
+        assertEquals(0, sudoku.getCandidatos(0, 0));
+
+        sudoku.colocar(0, 2, 4);
+        assertEquals(0, sudoku.getCandidatos(0, 2));
+        assertEquals(0, sudoku.getCandidatos(0, 3) & (1 << 4));
+        sudoku.borrar(0, 2);
+        assertEquals(bits, sudoku.getCandidatos(0, 2));
+    }
+
+    @Test
+    void testPistasDePuzzleFacilSonSingles() {
+        Sudoku sudoku = new Sudoku();
+        sudoku.cargarPuzzle(TablerosPrueba.matriz(FACIL));
+        TecnicaSudoku maxima = resolverConPistas(sudoku);
+        assertTrue(sudoku.estaResuelto());
+        assertTrue(maxima.compareTo(TecnicaSudoku.SINGLE_DESNUDO) <= 0);
+    }
+
+    @Test
+    void testPistasDePuzzleDificilNecesitanOtrasTecnicas() {
+        Sudoku sudoku = new Sudoku();
+        sudoku.cargarPuzzle(TablerosPrueba.matriz(DIFICIL));
+        TecnicaSudoku maxima = resolverConPistas(sudoku);
+        assertTrue(sudoku.estaResuelto());
+        assertTrue(maxima.compareTo(TecnicaSudoku.SINGLE_DESNUDO) > 0);
+    }
+
+    @Test
+    void testPistaCorrigeValorEquivocado() {
+        Sudoku sudoku = new Sudoku();
+        sudoku.cargarPuzzle(TablerosPrueba.matriz(FACIL));
+        // Un valor que no se repite en sus unidades pero no es el de la solución
+        int correcto = sudoku.getSolucion().get(0, 2);
+        int equivocado = correcto == 1 ? 2 : 1;
+        assertNull(sudoku.colocar(0, 2, equivocado));
+
+        Pista pista = sudoku.pista();
+        assertTrue(pista.isCorreccion());
+        assertEquals(0, pista.getFila());
+        assertEquals(2, pista.getColumna());
+        assertEquals(correcto, pista.getValor());
+        assertNull(pista.getTecnica());
+    }
+
+    @Test
+    void testSinPistaEnTableroCompletoOSinSolucion() {
+        Sudoku sudoku = new Sudoku();
+        sudoku.cargarPuzzle(TablerosPrueba.matriz(FACIL));
+        resolverConPistas(sudoku);
+        assertNull(sudoku.pista());
+
+        int[][] imposible = TablerosPrueba.matriz(FACIL);
+        imposible[0][2] = 5; // 5 repetido en la fila 0
+        sudoku.cargarPuzzle(imposible);
+        assertNull(sudoku.pista());
+    }
+}
@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PoolSudokuTest {
+
+    @Test
+    void testObtenerDesdeReservaCuentaAcierto() throws InterruptedException {
+        PoolSudoku pool = new PoolSudoku(1, 2, 2);
+        try {
+            // Esperar a que los hilos de relleno preparen algún puzzle
+            long limite = System.currentTimeMillis() + 10_000;
+            while (pool.disponibles("medio") == 0 && System.currentTimeMillis() < limite) {
+                Thread.sleep(10);
+            }
+            assertTrue(pool.disponibles("medio") > 0, "La reserva debe rellenarse en segundo plano");
+            assertTrue(pool.disponibles("medio") <= 2, "La reserva no debe superar su capacidad");
+
+            int[][] puzzle = pool.obtener("medio");
+            assertEquals(1, pool.getAciertos());
+            assertEquals(0, pool.getFallos());
+            assertEquals(1, new ResolutorDLX().contarSoluciones(puzzle, 2));
+        } finally {
+            pool.cerrar();
+        }
+    }
+
+    @Test
+    void testReservaVaciaGeneraAlMomento() {
+        PoolSudoku pool = new PoolSudoku(1, 2, 1);
+        pool.cerrar(); // Sin hilos de relleno, la reserva puede estar vacía
+
+        long fallosPrevios = pool.getFallos();
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(pool.obtener("dificil"));
+        }
+        assertEquals(3, pool.getAciertos() + pool.getFallos() - fallosPrevios);
+        assertTrue(pool.getFallos() >= 1, "Con la reserva agotada se debe generar al momento");
+    }
+
+    @Test
+    void testObtenerDisponibleCuentaFallo() {
+        PoolSudoku pool = new PoolSudoku(1, 2, 1);
+        pool.cerrar();
+        while (pool.obtenerDisponible("facil", null) != null) {
+            // Vaciar lo que se llegó a generar antes de cerrar
+        }
+        long fallosPrevios = pool.getFallos();
+        assertNull(pool.obtenerDisponible("facil", null));
+        assertEquals(fallosPrevios + 1, pool.getFallos());
+
+        // Una reserva de otro tamaño no sirve para la partida
+        assertThrows(IllegalArgumentException.class, () -> new Sudoku(4, pool));
+    }
+}
@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResolutorBitmaskTest {
+
+    private static final String PUZZLE =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    private static final String SOLUCION =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+
+    @Test
+    void testResolverPuzzleConocido() {
+        ResolutorBitmask resolutor = new ResolutorBitmask();
+        assertTrue(resolutor.cargar(TablerosPrueba.matriz(PUZZLE)));
+        assertTrue(resolutor.resolver());
+
+        int[][] resultado = new int[9][9];
+        resolutor.copiarEn(resultado);
+        assertArrayEquals(TablerosPrueba.matriz(SOLUCION), resultado);
+    }
+
+    @Test
+    void testCargarValoresContradictorios() {
+        int[][] tablero = new int[9][9];
+        tablero[0][0] = 5;
+        tablero[0][8] = 5; // Repetido en la fila
+        assertFalse(new ResolutorBitmask().cargar(tablero));
+    }
+
+    @Test
+    void testContarSolucionesRespetaLimite() {
+        ResolutorBitmask resolutor = new ResolutorBitmask();
+        resolutor.cargar(new int[9][9]);
+        assertEquals(2, resolutor.contarSoluciones(2), "Un tablero vacío tiene muchas soluciones");
+
+        resolutor.cargar(TablerosPrueba.matriz(PUZZLE));
+        assertEquals(1, resolutor.contarSoluciones(2), "El puzzle conocido tiene solución única");
+    }
+
+    @Test
+    void testPropagacionResuelveSinRamificar() {
+        // El puzzle conocido se resuelve solo con singles desnudos y ocultos
+        ResolutorBitmask resolutor = new ResolutorBitmask();
+        assertTrue(resolutor.cargar(TablerosPrueba.matriz(PUZZLE)));
+        assertTrue(resolutor.resolver());
+        // Un único nodo de búsqueda más unas pocas pasadas de propagación, sin suposiciones
+        assertTrue(resolutor.getNodos() <= 10, "Nodos visitados: " + resolutor.getNodos());
+
+        // Sin candidatos para la celda (0, 0): la propagación detecta la contradicción
+        int[][] tablero = new int[9][9];
+        for (int c = 1; c < 9; c++) {
+            tablero[0][c] = c;
+        }
+        tablero[1][1] = 9;
+        assertTrue(resolutor.cargar(tablero));
+        assertEquals(0, resolutor.contarSoluciones(2));
+        assertEquals(2, resolutor.getNodos());
+    }
+}
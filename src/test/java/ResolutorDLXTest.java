@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResolutorDLXTest {
+
+    private static final String PUZZLE =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    private static final String SOLUCION =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+
+    @Test
+    void testResolverPuzzleConocido() {
+        int[][] tablero = TablerosPrueba.matriz(PUZZLE);
+        assertTrue(new ResolutorDLX().resolver(tablero));
+        assertArrayEquals(TablerosPrueba.matriz(SOLUCION), tablero);
+    }
+
+    @Test
+    void testPistasContradictoriasYReutilizacion() {
+        ResolutorDLX resolutor = new ResolutorDLX();
+        int[][] tablero = TablerosPrueba.matriz(PUZZLE);
+        tablero[0][2] = 5; // Repetido en la fila y la subcuadrícula
+        assertFalse(resolutor.resolver(tablero));
+
+        // La matriz debe quedar intacta para el siguiente tablero
+        assertEquals(1, resolutor.contarSoluciones(TablerosPrueba.matriz(PUZZLE), 2));
+    }
+
+    @Test
+    void testValoresFueraDeRango() {
+        ResolutorDLX resolutor = new ResolutorDLX();
+        int[][] tablero = TablerosPrueba.matriz(PUZZLE);
+        tablero[0][2] = 10;
+        assertFalse(resolutor.resolver(tablero));
+        assertEquals(0, resolutor.contarSoluciones(tablero, 2));
+        tablero[0][2] = -1;
+        assertFalse(resolutor.resolver(tablero));
+        assertEquals(0, resolutor.enumerarSoluciones(tablero, 2, solucion -> fail()));
+
+        // Igual que el motor de bits, y la matriz queda intacta
+        assertFalse(new ResolutorBitmask().resolver(tablero));
+        assertEquals(1, resolutor.contarSoluciones(TablerosPrueba.matriz(PUZZLE), 2));
+    }
+
+    @Test
+    void testEnumerarSoluciones() {
+        int[][] tablero = TablerosPrueba.matriz(SOLUCION);
+        // Vaciar un rectángulo mortal: dos soluciones posibles
+        tablero[0][0] = 0; // 5
+        tablero[0][1] = 0; // 3
+        tablero[1][0] = 0; // 6
+        tablero[1][1] = 0; // 7
+        tablero[0][2] = 0;
+        tablero[1][2] = 0;
+
+        int[] contador = new int[1];
+        int encontradas = new ResolutorDLX().enumerarSoluciones(tablero, 10, solucion -> {
+            contador[0]++;
+            assertNotEquals(0, solucion[0][0]);
+        });
+        assertEquals(contador[0], encontradas);
+        assertEquals(new ResolutorBitmask().contarSoluciones(tablero, 10), encontradas);
+        assertEquals(0, tablero[0][0], "El tablero original no se modifica");
+    }
+}
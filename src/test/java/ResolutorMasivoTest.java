@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResolutorMasivoTest {
+
+    private static final String PUZZLE =
+            "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+    private static final String SOLUCION =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+    // Dos cincos en la primera fila
+    private static final String SIN_SOLUCION =
+            "55..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void testResolverArchivoConservaElOrden() throws IOException {
+        // Más puzzles que un bloque para repartir el trabajo entre varios hilos
+        List<String> entrada = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            entrada.add(i % 1000 == 7 ? SIN_SOLUCION : PUZZLE);
+        }
+        entrada.add("");
+        entrada.add("123");
+        entrada.add(PUZZLE.replace('.', '0') + "\r");
+
+        Path archivoEntrada = directorio.resolve("puzzles.txt");
+        Path archivoSalida = directorio.resolve("soluciones.txt");
+        Files.write(archivoEntrada, entrada, StandardCharsets.US_ASCII);
+
+        ResolutorMasivo.Resumen resumen;
+        try (FileChannel salida = FileChannel.open(archivoSalida, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            resumen = new ResolutorMasivo(3).resolver(archivoEntrada, salida);
+        }
+        assertEquals(10_002, resumen.getPuzzles());
+        assertEquals(9_991, resumen.getResueltos());
+        assertEquals(1, resumen.getInvalidos());
+
+        List<String> salida = Files.readAllLines(archivoSalida, StandardCharsets.US_ASCII);
+        assertEquals(10_002, salida.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i % 1000 == 7 ? "sin solucion" : SOLUCION, salida.get(i), "Línea " + i);
+        }
+        assertEquals("formato no valido", salida.get(10_000));
+        assertEquals(SOLUCION, salida.get(10_001));
+    }
+}
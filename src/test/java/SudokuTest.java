@@ -102,5 +102,363 @@ public class SudokuTest {
         assertNotNull(error);
         assertTrue(error.contains("El valor debe estar entre 1 y 9"));
     }
-}
 
+    @Test
+    public void testTablero16x16() {
+        Sudoku grande = new Sudoku(4);
+        assertEquals(16, grande.getTamanio());
+        assertNull(grande.esMovimientoValido(15, 15, 16));
+        assertTrue(grande.colocarNumero(0, 0, 12));
+        assertFalse(grande.colocarNumero(3, 3, 12)); // Ya existe en subcuadrícula 4x4
+        assertTrue(grande.colocarNumero(4, 4, 12));
+
+        String error = grande.esMovimientoValido(0, 1, 17);
+        assertTrue(error.contains("El valor debe estar entre 1 y 16"));
+    }
+
+    @Test
+    public void testCodigosDeError() {
+        sudoku.setValor(0, 0, 5);
+        sudoku.setValor(4, 1, 6);
+        sudoku.setValor(2, 2, 7);
+        assertEquals(ErrorMovimiento.FUERA_DEL_TABLERO, sudoku.validarMovimiento(9, 0, 1));
+        assertEquals(ErrorMovimiento.VALOR_FUERA_DE_RANGO, sudoku.validarMovimiento(0, 0, 0));
+        assertEquals(ErrorMovimiento.REPETIDO_EN_FILA, sudoku.validarMovimiento(0, 8, 5));
+        assertEquals(ErrorMovimiento.REPETIDO_EN_FILA, sudoku.validarMovimiento(0, 0, 5)); // La propia celda
+        assertEquals(ErrorMovimiento.REPETIDO_EN_COLUMNA, sudoku.validarMovimiento(8, 1, 6));
+        assertEquals(ErrorMovimiento.REPETIDO_EN_SUBCUADRICULA, sudoku.validarMovimiento(1, 1, 7));
+        assertNull(sudoku.validarMovimiento(1, 1, 8));
+        assertEquals("El valor 6 ya existe en la columna 1.", sudoku.esMovimientoValido(8, 1, 6));
+    }
+
+    @Test
+    public void testOcupacionSeActualizaAlCambiarValores() {
+        // Dos cincos en la misma fila: quitar uno no libera el valor
+        sudoku.setValor(0, 0, 5);
+        sudoku.setValor(0, 4, 5);
+        sudoku.setValor(0, 0, 0);
+        assertEquals(ErrorMovimiento.REPETIDO_EN_FILA, sudoku.validarMovimiento(0, 8, 5));
+        sudoku.setValor(0, 4, 3);
+        assertNull(sudoku.validarMovimiento(0, 8, 5));
+        assertEquals(ErrorMovimiento.REPETIDO_EN_FILA, sudoku.colocar(0, 8, 3));
+
+        // Sustituir un valor colocado libera el anterior
+        assertNull(sudoku.colocar(8, 8, 9));
+        assertNull(sudoku.colocar(8, 8, 1));
+        assertNull(sudoku.validarMovimiento(8, 0, 9));
+        assertEquals(ErrorMovimiento.REPETIDO_EN_FILA, sudoku.validarMovimiento(8, 0, 1));
+
+        // Tras generar, las pistas ocupan sus unidades
+        sudoku.generarTablero("facil", 42L);
+        for (int fila = 0; fila < Sudoku.TAMANIO; fila++) {
+            for (int col = 0; col < Sudoku.TAMANIO; col++) {
+                int valor = sudoku.getValor(fila, col);
+                if (valor != 0 && col != 8 && !sudoku.esCeldaFija(fila, 8)) {
+                    assertNotNull(sudoku.validarMovimiento(fila, 8, valor));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEstadoResueltoIncremental() {
+        sudoku.generarTablero("facil", 7L);
+        Tablero solucion = sudoku.getTablero();
+        ResolutorBitmask resolutor = new ResolutorBitmask();
+        assertTrue(resolutor.cargar(solucion) && resolutor.resolver());
+        resolutor.copiarEn(solucion);
+
+        int vacias = Sudoku.TAMANIO * Sudoku.TAMANIO - sudoku.getCeldasLlenas();
+        assertEquals(30, vacias);
+        assertFalse(sudoku.estaResuelto());
+
+        // Rellenar todas las celdas vacías menos una con la solución
+        int ultimaFila = -1;
+        int ultimaColumna = -1;
+        for (int fila = 0; fila < Sudoku.TAMANIO; fila++) {
+            for (int col = 0; col < Sudoku.TAMANIO; col++) {
+                if (!sudoku.esCeldaFija(fila, col)) {
+                    if (ultimaFila >= 0) {
+                        assertTrue(sudoku.colocarNumero(ultimaFila, ultimaColumna, solucion.get(ultimaFila, ultimaColumna)));
+                    }
+                    ultimaFila = fila;
+                    ultimaColumna = col;
+                }
+            }
+        }
+        assertFalse(sudoku.estaResuelto());
+        assertEquals(0, sudoku.getConflictos());
+
+        // Un valor repetido completa el tablero pero deja conflictos
+        int correcto = solucion.get(ultimaFila, ultimaColumna);
+        int repetido = correcto % Sudoku.TAMANIO + 1;
+        sudoku.setValor(ultimaFila, ultimaColumna, repetido);
+        assertEquals(81, sudoku.getCeldasLlenas());
+        assertTrue(sudoku.getConflictos() > 0);
+        assertFalse(sudoku.estaResuelto());
+
+        sudoku.setValor(ultimaFila, ultimaColumna, correcto);
+        assertEquals(0, sudoku.getConflictos());
+        assertTrue(sudoku.estaResuelto());
+
+        sudoku.setValor(ultimaFila, ultimaColumna, 0);
+        assertFalse(sudoku.estaResuelto());
+    }
+
+    @Test
+    public void testConflictosPorCelda() {
+        int[] cambiadas = new int[Sudoku.TAMANIO * Sudoku.TAMANIO];
+        sudoku.drenarConflictosCambiados(cambiadas);
+
+        // Un valor repetido se admite con escribir y marca las dos celdas
+        assertNull(sudoku.escribir(0, 0, 5));
+        assertNull(sudoku.escribir(0, 4, 5));
+        assertTrue(sudoku.enConflicto(0, 0));
+        assertTrue(sudoku.enConflicto(0, 4));
+        assertEquals(2, sudoku.drenarConflictosCambiados(cambiadas));
+        assertEquals(0, cambiadas[0]);
+        assertEquals(4, cambiadas[1]);
+
+        // Un tercer cinco en la misma subcuadrícula que el primero solo cambia su propia celda
+        assertNull(sudoku.escribir(1, 1, 5));
+        assertEquals(1, sudoku.drenarConflictosCambiados(cambiadas));
+        assertEquals(10, cambiadas[0]);
+
+        // Quitar el de la fila deja el conflicto de la subcuadrícula
+        assertNull(sudoku.borrar(0, 4));
+        assertTrue(sudoku.enConflicto(0, 0));
+        assertFalse(sudoku.enConflicto(0, 4));
+        assertTrue(sudoku.enConflicto(1, 1));
+        assertEquals(1, sudoku.drenarConflictosCambiados(cambiadas));
+        assertEquals(4, cambiadas[0]);
+
+        // Deshacer el borrado devuelve el cinco de la fila; deshacer el tercero quita el de la subcuadrícula
+        assertTrue(sudoku.deshacer());
+        assertTrue(sudoku.deshacer());
+        assertEquals(0, sudoku.getValor(1, 1));
+        assertTrue(sudoku.enConflicto(0, 0));
+        assertTrue(sudoku.enConflicto(0, 4));
+        assertFalse(sudoku.enConflicto(1, 1));
+        assertEquals(1, sudoku.getConflictos());
+
+        assertNull(sudoku.borrar(0, 4));
+        assertFalse(sudoku.enConflicto(0, 0));
+        assertEquals(0, sudoku.getConflictos());
+        assertEquals(ErrorMovimiento.VALOR_FUERA_DE_RANGO, sudoku.escribir(0, 0, 10));
+    }
+
+    @Test
+    public void testConflictosCoincidenConRecorridoCompleto() {
+        sudoku.generarTablero("medio", 3L);
+        java.util.Random random = new java.util.Random(3);
+        for (int paso = 0; paso < 2000; paso++) {
+            int fila = random.nextInt(Sudoku.TAMANIO);
+            int col = random.nextInt(Sudoku.TAMANIO);
+            if (random.nextInt(4) == 0) {
+                sudoku.borrar(fila, col);
+            } else {
+                sudoku.escribir(fila, col, random.nextInt(Sudoku.TAMANIO) + 1);
+            }
+        }
+        for (int fila = 0; fila < Sudoku.TAMANIO; fila++) {
+            for (int col = 0; col < Sudoku.TAMANIO; col++) {
+                int valor = sudoku.getValor(fila, col);
+                boolean repetido = false;
+                for (int otra = 0; otra < Sudoku.TAMANIO * Sudoku.TAMANIO; otra++) {
+                    int f = otra / Sudoku.TAMANIO;
+                    int c = otra % Sudoku.TAMANIO;
+                    boolean vecina = (f == fila || c == col || (f / 3 == fila / 3 && c / 3 == col / 3))
+                            && !(f == fila && c == col);
+                    repetido |= valor != 0 && vecina && sudoku.getValor(f, c) == valor;
+                }
+                assertEquals(repetido, sudoku.enConflicto(fila, col), "Celda " + fila + "," + col);
+            }
+        }
+    }
+
+    @Test
+    public void testAvisosDeCambiosDeCelda() {
+        StringBuilder avisos = new StringBuilder();
+        ObservadorSudoku observador = new ObservadorSudoku() {
+            @Override
+            public void celdaCambiada(int fila, int columna, int anterior, int nuevo) {
+                avisos.append(fila).append(',').append(columna).append(':')
+                        .append(anterior).append('>').append(nuevo).append(' ');
+            }
+
+            @Override
+            public void tableroCambiado() {
+                avisos.append("tablero ");
+            }
+        };
+        sudoku.agregarObservador(observador);
+        int[] cambiadas = new int[Sudoku.TAMANIO * Sudoku.TAMANIO];
+
+        sudoku.generarTablero("facil", 5L);
+        assertEquals("tablero ", avisos.toString());
+        assertEquals(81, sudoku.drenarCeldasCambiadas(cambiadas));
+        assertEquals(0, sudoku.drenarCeldasCambiadas(cambiadas));
+
+        // Una celda vacía cualquiera
+        int celda = 0;
+        while (sudoku.getValor(celda / 9, celda % 9) != 0) {
+            celda++;
+        }
+        int fila = celda / 9;
+        int columna = celda % 9;
+        avisos.setLength(0);
+        sudoku.escribir(fila, columna, 1);
+        sudoku.escribir(fila, columna, 1); // Sin cambio, sin aviso
+        sudoku.escribir(fila, columna, 2);
+        sudoku.deshacer();
+        assertEquals(fila + "," + columna + ":0>1 " + fila + "," + columna + ":1>2 "
+                + fila + "," + columna + ":2>1 ", avisos.toString());
+        // Varios cambios de la misma celda se entregan una sola vez
+        assertEquals(1, sudoku.drenarCeldasCambiadas(cambiadas));
+        assertEquals(celda, cambiadas[0]);
+
+        sudoku.quitarObservador(observador);
+        avisos.setLength(0);
+        sudoku.borrar(fila, columna);
+        assertEquals("", avisos.toString());
+        assertEquals(1, sudoku.drenarCeldasCambiadas(cambiadas));
+    }
+
+    @Test
+    public void testDeshacerRehacerYGuardarPartida() {
+        sudoku.generarTablero("medio", 11L);
+        Tablero inicial = sudoku.getTablero();
+
+        // Colocar en las cinco primeras celdas vacías el primer valor válido
+        int colocados = 0;
+        for (int fila = 0; fila < Sudoku.TAMANIO && colocados < 5; fila++) {
+            for (int col = 0; col < Sudoku.TAMANIO && colocados < 5; col++) {
+                for (int val = 1; val <= 9 && !sudoku.esCeldaFija(fila, col) && sudoku.getValor(fila, col) == 0; val++) {
+                    if (sudoku.colocarNumero(fila, col, val)) {
+                        colocados++;
+                    }
+                }
+            }
+        }
+        Tablero tras5 = sudoku.getTablero();
+        assertEquals(5, sudoku.getDiario().getCantidad());
+
+        assertTrue(sudoku.deshacer());
+        assertTrue(sudoku.deshacer());
+        assertTrue(sudoku.rehacer());
+        byte[] partida = sudoku.guardarPartida();
+        assertTrue(partida.length < 150, "Ocupa " + partida.length + " bytes");
+
+        sudoku.irAMovimiento(0);
+        assertEquals(inicial, sudoku.getTablero());
+        assertFalse(sudoku.deshacer());
+        sudoku.irAMovimiento(5);
+        assertEquals(tras5, sudoku.getTablero());
+        assertEquals(0, sudoku.getConflictos());
+
+        Sudoku cargado = Sudoku.cargarPartida(partida);
+        assertEquals(4, cargado.getDiario().getPosicion());
+        assertTrue(cargado.rehacer());
+        assertEquals(tras5, cargado.getTablero());
+        assertEquals(sudoku.getCeldasLlenas(), cargado.getCeldasLlenas());
+        for (int fila = 0; fila < Sudoku.TAMANIO; fila++) {
+            for (int col = 0; col < Sudoku.TAMANIO; col++) {
+                assertEquals(sudoku.esCeldaFija(fila, col), cargado.esCeldaFija(fila, col));
+            }
+        }
+    }
+
+    @Test
+    public void testSolucionConservadaAlGenerar() {
+        sudoku.generarTablero("dificil", 3L);
+        Tablero solucion = sudoku.getSolucion();
+        assertNotNull(solucion);
+        assertTrue(solucion.estaResuelto());
+        assertEquals(0, sudoku.verificarTablero());
+
+        // Buscar una celda vacía y probar un valor correcto y otro incorrecto
+        int fila = 0;
+        int col = 0;
+        while (sudoku.getValor(fila, col) != 0) {
+            col = (col + 1) % Sudoku.TAMANIO;
+            fila += col == 0 ? 1 : 0;
+        }
+        int correcto = solucion.get(fila, col);
+        int incorrecto = correcto % Sudoku.TAMANIO + 1;
+        assertTrue(sudoku.esValorCorrecto(fila, col, correcto));
+        assertFalse(sudoku.esValorCorrecto(fila, col, incorrecto));
+
+        sudoku.setValor(fila, col, incorrecto);
+        assertEquals(1, sudoku.verificarTablero());
+        assertEquals(correcto, sudoku.revelarCelda(fila, col));
+        assertEquals(correcto, sudoku.getValor(fila, col));
+        assertEquals(0, sudoku.verificarTablero());
+        assertTrue(sudoku.deshacer());
+        assertEquals(incorrecto, sudoku.getValor(fila, col));
+        assertEquals(1, sudoku.verificarTablero());
+    }
+
+    @Test
+    public void testSolucionDePuzzleCargado() {
+        int[][] puzzle = {
+                {5, 3, 0, 0, 7, 0, 0, 0, 0},
+                {6, 0, 0, 1, 9, 5, 0, 0, 0},
+                {0, 9, 8, 0, 0, 0, 0, 6, 0},
+                {8, 0, 0, 0, 6, 0, 0, 0, 3},
+                {4, 0, 0, 8, 0, 3, 0, 0, 1},
+                {7, 0, 0, 0, 2, 0, 0, 0, 6},
+                {0, 6, 0, 0, 0, 0, 2, 8, 0},
+                {0, 0, 0, 4, 1, 9, 0, 0, 5},
+                {0, 0, 0, 0, 8, 0, 0, 7, 9}
+        };
+        sudoku.cargarPuzzle(puzzle);
+        assertTrue(sudoku.esCeldaFija(0, 0));
+        assertTrue(sudoku.colocarNumero(0, 2, 1)); // Válido según las reglas, pero no es la solución
+        assertFalse(sudoku.esValorCorrecto(0, 2, 1));
+        assertTrue(sudoku.esValorCorrecto(0, 2, 4));
+        assertEquals(1, sudoku.verificarTablero());
+        assertEquals(6, sudoku.revelarCelda(0, 3));
+        assertEquals(1, sudoku.verificarTablero());
+
+        // Unas pistas contradictorias no tienen solución
+        puzzle[0][2] = 5;
+        sudoku.cargarPuzzle(puzzle);
+        assertEquals(-1, sudoku.verificarTablero());
+        assertNull(sudoku.getSolucion());
+        assertEquals(0, sudoku.revelarCelda(0, 3));
+    }
+
+    @Test
+    public void testCargarPuzzleConFilasIrregulares() {
+        int[][] corta = new int[9][9];
+        corta[4] = new int[8];
+        assertThrows(IllegalArgumentException.class, () -> sudoku.cargarPuzzle(corta));
+        int[][] larga = new int[9][9];
+        larga[8] = new int[10];
+        assertThrows(IllegalArgumentException.class, () -> sudoku.cargarPuzzle(larga));
+        int[][] sinFila = new int[9][];
+        assertThrows(IllegalArgumentException.class, () -> sudoku.cargarPuzzle(sinFila));
+    }
+
+    @Test
+    public void testSolucionDeTableroMontadoConSetValor() {
+        String puzzle = "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+        for (int celda = 0; celda < 81; celda++) {
+            sudoku.setValor(celda / 9, celda % 9, puzzle.charAt(celda) - '0');
+        }
+        // Sin celdas fijas, la solución sale de los valores montados y no del tablero vacío
+        assertFalse(sudoku.esCeldaFija(0, 0));
+        assertTrue(sudoku.colocarNumero(0, 2, 4));
+        assertTrue(sudoku.esValorCorrecto(0, 2, 4));
+        assertEquals(0, sudoku.verificarTablero());
+        assertEquals(6, sudoku.revelarCelda(0, 3));
+
+        // Vaciar una celda fija deja de hacerla fija
+        sudoku.cargarPuzzle(TablerosPrueba.matriz(puzzle));
+        assertTrue(sudoku.esCeldaFija(0, 0));
+        sudoku.setValor(0, 0, 0);
+        assertFalse(sudoku.esCeldaFija(0, 0));
+        assertTrue(sudoku.colocarNumero(0, 0, 5));
+        assertTrue(sudoku.esValorCorrecto(0, 0, 5));
+    }
+}
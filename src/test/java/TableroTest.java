@@ -0,0 +1,45 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TableroTest {
+
+    private static final String SOLUCION =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+
+    @Test
+    void testVecinasDeUnaCelda() {
+        GeometriaSudoku geometria = GeometriaSudoku.de(3);
+        assertEquals(20, geometria.numeroPares);
+        // La celda (4, 4) tiene su fila, su columna y las otras 4 celdas de la subcuadrícula central
+        int celda = geometria.celda(4, 4);
+        for (int k = 0; k < geometria.numeroPares; k++) {
+            int par = geometria.par(celda, k);
+            assertNotEquals(celda, par);
+            if (k < 8) {
+                assertEquals(4, geometria.fila(par));
+            } else if (k < 16) {
+                assertEquals(4, geometria.columna(par));
+            } else {
+                assertEquals(geometria.caja(celda), geometria.caja(par));
+            }
+        }
+    }
+
+    @Test
+    void testCopiaIgualdadYConversion() {
+        Tablero tablero = TablerosPrueba.tablero(SOLUCION);
+        assertTrue(tablero.estaResuelto());
+
+        Tablero copia = tablero.copia();
+        assertEquals(tablero, copia);
+        assertEquals(tablero.hashCode(), copia.hashCode());
+        assertEquals(tablero, Tablero.desdeMatriz(tablero.aMatriz()));
+
+        copia.set(0, 0, 0);
+        assertNotEquals(tablero, copia);
+        assertFalse(copia.estaResuelto());
+        assertEquals(1, copia.contarVacias());
+        assertFalse(copia.estaEnVecinas(0, 5));
+        assertTrue(copia.estaEnVecinas(0, 3));
+    }
+}
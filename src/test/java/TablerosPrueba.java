@@ -0,0 +1,35 @@
+/**
+ * Convierte los puzzles de prueba, escritos como una cadena de 81 dígitos (0 para las
+ * celdas vacías), en los tableros que usan las pruebas.
+ */
+final class TablerosPrueba {
+
+    private TablerosPrueba() {
+    }
+
+    /**
+     * Convierte una cadena de 81 dígitos en una matriz 9x9
+     * @param texto Valores fila a fila
+     * @return Matriz con los valores
+     */
+    static int[][] matriz(String texto) {
+        int[][] tablero = new int[9][9];
+        for (int i = 0; i < 81; i++) {
+            tablero[i / 9][i % 9] = texto.charAt(i) - '0';
+        }
+        return tablero;
+    }
+
+    /**
+     * Convierte una cadena de 81 dígitos en un tablero plano 9x9
+     * @param texto Valores fila a fila
+     * @return Tablero con los valores
+     */
+    static Tablero tablero(String texto) {
+        Tablero tablero = new Tablero();
+        for (int i = 0; i < 81; i++) {
+            tablero.set(i, texto.charAt(i) - '0');
+        }
+        return tablero;
+    }
+}
@@ -0,0 +1,51 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransformadorSudokuTest {
+
+    private static final String PUZZLE =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+
+    @Test
+    void testDerivadosConservanUnicidad() {
+        TransformadorSudoku transformador = new TransformadorSudoku(TablerosPrueba.matriz(PUZZLE));
+        ResolutorDLX resolutor = new ResolutorDLX();
+        Set<Tablero> distintos = new HashSet<>();
+        for (long semilla = 0; semilla < 50; semilla++) {
+            Tablero derivado = transformador.derivar(semilla);
+            assertEquals(81 - 30, derivado.contarVacias(), "Se conserva el número de pistas");
+            assertEquals(1, resolutor.contarSoluciones(derivado.aMatriz(), 2));
+            distintos.add(derivado);
+        }
+        assertTrue(distintos.size() > 45, "Las transformaciones deben variar el puzzle");
+    }
+
+    @Test
+    void testDerivacionReproducible() {
+        TransformadorSudoku transformador = new TransformadorSudoku(TablerosPrueba.matriz(PUZZLE));
+        assertEquals(transformador.derivar(42L), transformador.derivar(42L));
+
+        List<int[][]> lote = GeneradorSudoku.generarLoteDerivado(20, "medio", 9L);
+        List<int[][]> repetido = GeneradorSudoku.generarLoteDerivado(20, "medio", 9L);
+        assertEquals(20, lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            assertArrayEquals(lote.get(i), repetido.get(i));
+        }
+    }
+
+    @Test
+    void testDerivarTablero16x16() {
+        Tablero puzzle = new GeneradorSudoku(4, 3L).generar("facil");
+        Tablero derivado = new TransformadorSudoku(puzzle).derivar(5L);
+        assertEquals(puzzle.contarVacias(), derivado.contarVacias());
+
+        ResolutorBitmask resolutor = new ResolutorBitmask(GeometriaSudoku.de(4), null);
+        assertTrue(resolutor.cargar(derivado));
+        assertTrue(resolutor.resolver());
+    }
+}